@@ -0,0 +1,95 @@
+package com.liquibase.application.config;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.liquibase.application.util.DateTimeUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the custom conversions registered in {@link CouchbaseConfig}.
+ * <code>*WithFormatter</code> benchmarks keep the per-value {@link DateTimeFormatter} approach as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CouchbaseConvertersBenchmark {
+    private static final int SAMPLES = 1024;
+
+    private final LocalDate[] dates = new LocalDate[SAMPLES];
+
+    private final String[] dateStrings = new String[SAMPLES];
+
+    private final LocalTime[] times = new LocalTime[SAMPLES];
+
+    private final String[] timeStrings = new String[SAMPLES];
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate origin = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < SAMPLES; i++) {
+            dates[i] = origin.plusDays(random.nextInt(365 * 15));
+            dateStrings[i] = dates[i].toString();
+            times[i] = LocalTime.of(random.nextInt(24), random.nextInt(60));
+            timeStrings[i] = times[i].toString();
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (SAMPLES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public LocalTime stringToLocalTime() {
+        return CouchbaseConfig.StringToLocalTimeConverter.INSTANCE.convert(timeStrings[nextIndex()]);
+    }
+
+    @Benchmark
+    public String localTimeToString() {
+        return CouchbaseConfig.LocalTimeToStringConverter.INSTANCE.convert(times[nextIndex()]);
+    }
+
+    @Benchmark
+    public LocalDate stringToLocalDate() {
+        return CouchbaseConfig.StringToLocalDateConverter.INSTANCE.convert(dateStrings[nextIndex()]);
+    }
+
+    @Benchmark
+    public String localDateToString() {
+        return CouchbaseConfig.LocalDateToStringConverter.INSTANCE.convert(dates[nextIndex()]);
+    }
+
+    @Benchmark
+    public LocalTime stringToLocalTimeWithFormatter() {
+        return LocalTime.parse(timeStrings[nextIndex()]);
+    }
+
+    @Benchmark
+    public LocalDate stringToLocalDateWithFormatter() {
+        return LocalDate.parse(dateStrings[nextIndex()], DateTimeFormatter.ofPattern(DateTimeUtil.YYYY_MM_DD));
+    }
+
+    @Benchmark
+    public String localDateToStringWithFormatter() {
+        return dates[nextIndex()].format(DateTimeFormatter.ofPattern(DateTimeUtil.YYYY_MM_DD));
+    }
+}
@@ -0,0 +1,97 @@
+package com.liquibase.application.config;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.metrics.NoopMeter;
+import io.micrometer.core.instrument.Meter.Id;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Overhead of recording a Couchbase request latency through {@link MicrometerCouchbaseMeter}, with percentiles
+ * and histograms configured as in <code>application.yml</code>, compared with the SDK's no-op meter.
+ * Runs on several threads, since the SDK records from all of its event loops at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class CouchbaseMeterBenchmark {
+    private static final int SAMPLES = 1024;
+    private static final String[] OPERATIONS = {"get", "upsert", "mutate_in", "query"};
+
+    private Meter micrometer;
+
+    private Meter noop;
+
+    private Map<String, String>[] tags;
+
+    private long[] latencies;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.99, 0.999)
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+            }
+        });
+        micrometer = new MicrometerCouchbaseMeter(registry);
+        noop = NoopMeter.INSTANCE;
+
+        SplittableRandom random = new SplittableRandom(42);
+        tags = new Map[SAMPLES];
+        latencies = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            tags[i] = Map.of("db.couchbase.service", "kv",
+                    "db.operation", OPERATIONS[random.nextInt(OPERATIONS.length)]);
+            latencies[i] = 100 + random.nextInt(10_000);
+        }
+    }
+
+    @Benchmark
+    public void micrometer(ThreadIndex index) {
+        int i = index.next();
+        micrometer.valueRecorder("db.couchbase.operations", tags[i]).recordValue(latencies[i]);
+    }
+
+    @Benchmark
+    public void noop(ThreadIndex index) {
+        int i = index.next();
+        noop.valueRecorder("db.couchbase.operations", tags[i]).recordValue(latencies[i]);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadIndex {
+        private int index;
+
+        int next() {
+            index = (index + 1) & (SAMPLES - 1);
+            return index;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.liquibase.application.domain;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Benchmarks of Jackson encoding and decoding of {@link Rota}, configured the same way as the web layer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RotaJsonBenchmark {
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private Rota rota;
+
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new JsonNullableModule())
+                .build();
+        writer = objectMapper.writerFor(Rota.class);
+        reader = objectMapper.readerFor(Rota.class);
+
+        rota = new Rota();
+        rota.setId("rota::0001");
+        rota.setName("Depot 0001 night shift");
+        json = writer.writeValueAsBytes(rota);
+    }
+
+    @Benchmark
+    public byte[] encode() throws JsonProcessingException {
+        return writer.writeValueAsBytes(rota);
+    }
+
+    @Benchmark
+    public Rota decode() throws IOException {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,105 @@
+package com.liquibase.application.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.couchbase.core.convert.MappingCouchbaseConverter;
+import org.springframework.data.couchbase.core.convert.translation.JacksonTranslationService;
+import org.springframework.data.couchbase.core.mapping.CouchbaseDocument;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares the work done per <code>GET /rotas/{rotaId}</code> on the mapped path (stored JSON decoded
+ * into a {@link Rota} and encoded by Jackson) and on the passthrough path ({@link RotaPassthroughHandler}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RotaReadPathBenchmark {
+    private static final int SAMPLES = 1024;
+
+    private MappingCouchbaseConverter converter;
+
+    private JacksonTranslationService translationService;
+
+    private ObjectWriter writer;
+
+    private DataBufferFactory bufferFactory;
+
+    private String[] ids;
+
+    private String[] storedDocuments;
+
+    private byte[][] projectedDocuments;
+
+    private int index;
+
+    @Setup
+    public void setUp() {
+        converter = new MappingCouchbaseConverter();
+        converter.afterPropertiesSet();
+        translationService = new JacksonTranslationService();
+        translationService.afterPropertiesSet();
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new JsonNullableModule())
+                .build();
+        writer = objectMapper.writerFor(Rota.class);
+        bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+        SplittableRandom random = new SplittableRandom(42);
+        ids = new String[SAMPLES];
+        storedDocuments = new String[SAMPLES];
+        projectedDocuments = new byte[SAMPLES][];
+        for (int i = 0; i < SAMPLES; i++) {
+            Rota rota = new Rota();
+            rota.setId("rota::" + random.nextInt(100_000));
+            rota.setName("Depot " + random.nextInt(1000) + " night shift");
+            CouchbaseDocument document = new CouchbaseDocument();
+            converter.write(rota, document);
+            ids[i] = rota.getId();
+            storedDocuments[i] = translationService.encode(document);
+            projectedDocuments[i] = ("{\"name\":\"" + rota.getName() + "\"}").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public byte[] mapped() throws JsonProcessingException {
+        int i = nextIndex();
+        CouchbaseDocument document = new CouchbaseDocument(ids[i]);
+        translationService.decode(storedDocuments[i], document);
+        return writer.writeValueAsBytes(converter.read(Rota.class, document));
+    }
+
+    @Benchmark
+    public List<DataBuffer> passthrough() {
+        int i = nextIndex();
+        return RotaPassthroughHandler.toJson(bufferFactory, ids[i], projectedDocuments[i]);
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (SAMPLES - 1);
+        return index;
+    }
+}
@@ -0,0 +1,121 @@
+package com.liquibase.application.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.couchbase.core.convert.MappingCouchbaseConverter;
+import org.springframework.data.couchbase.core.convert.translation.JacksonTranslationService;
+import org.springframework.data.couchbase.core.mapping.CouchbaseDocument;
+
+/**
+ * Compares encoding and decoding of rota documents in the verbose Spring Data format and in the compact format
+ * of {@link CompactRotaTranscoder}.
+ * <p>
+ * The average document size of both formats, and so the bucket RAM saved per million resident rotas, is printed
+ * once on setup. Couchbase adds its own metadata and the key to every resident document, which don't change.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RotaStorageFormatBenchmark {
+    private static final int SAMPLES = 1024;
+
+    private MappingCouchbaseConverter converter;
+
+    private JacksonTranslationService translationService;
+
+    private Rota[] rotas;
+
+    private String[] verboseDocuments;
+
+    private byte[][] verboseDocumentBytes;
+
+    private byte[][] compactDocuments;
+
+    private int index;
+
+    @Setup
+    public void setUp() {
+        converter = new MappingCouchbaseConverter();
+        converter.afterPropertiesSet();
+        translationService = new JacksonTranslationService();
+        translationService.afterPropertiesSet();
+
+        SplittableRandom random = new SplittableRandom(42);
+        rotas = new Rota[SAMPLES];
+        verboseDocuments = new String[SAMPLES];
+        verboseDocumentBytes = new byte[SAMPLES][];
+        compactDocuments = new byte[SAMPLES][];
+        long verboseBytes = 0;
+        long compactBytes = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            Rota rota = new Rota();
+            rota.setId("rota::" + random.nextInt(100_000));
+            rota.setName("Depot " + random.nextInt(1000) + " night shift");
+            rotas[i] = rota;
+            verboseDocuments[i] = encodeVerbose(rota);
+            verboseDocumentBytes[i] = verboseDocuments[i].getBytes(StandardCharsets.UTF_8);
+            compactDocuments[i] = CompactRotaTranscoder.INSTANCE.encode(rota).encoded();
+            verboseBytes += verboseDocumentBytes[i].length;
+            compactBytes += compactDocuments[i].length;
+        }
+        System.out.printf(Locale.ROOT, "%nAverage rota document: verbose %.1f bytes, compact %.1f bytes, "
+                        + "%.1f MB less bucket RAM per million resident rotas%n",
+                (double) verboseBytes / SAMPLES, (double) compactBytes / SAMPLES,
+                (double) (verboseBytes - compactBytes) / SAMPLES);
+    }
+
+    @Benchmark
+    public String encodeVerbose() {
+        return encodeVerbose(rotas[nextIndex()]);
+    }
+
+    @Benchmark
+    public byte[] encodeCompact() {
+        return CompactRotaTranscoder.INSTANCE.encode(rotas[nextIndex()]).encoded();
+    }
+
+    @Benchmark
+    public Rota decodeVerbose() {
+        int i = nextIndex();
+        CouchbaseDocument document = new CouchbaseDocument(rotas[i].getId());
+        translationService.decode(verboseDocuments[i], document);
+        return converter.read(Rota.class, document);
+    }
+
+    @Benchmark
+    public Rota decodeVerboseWithTranscoder() {
+        return CompactRotaTranscoder.INSTANCE.decode(verboseDocumentBytes[nextIndex()]);
+    }
+
+    @Benchmark
+    public Rota decodeCompact() {
+        return CompactRotaTranscoder.INSTANCE.decode(compactDocuments[nextIndex()]);
+    }
+
+    private String encodeVerbose(Rota rota) {
+        CouchbaseDocument document = new CouchbaseDocument();
+        converter.write(rota, document);
+        return translationService.encode(document);
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (SAMPLES - 1);
+        return index;
+    }
+}
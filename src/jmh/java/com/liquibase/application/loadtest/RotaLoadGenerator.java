@@ -0,0 +1,202 @@
+package com.liquibase.application.loadtest;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.liquibase.application.LiquibaseApp;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Open-loop load generator for the rota endpoints.
+ * <p>
+ * Requests are issued at a fixed target rate regardless of how fast responses come back, and latency is measured
+ * from the moment a request was due, not when it was actually sent, so a stalling server can't hide its stalls
+ * (no coordinated omission). A share of <code>load.readRatio</code> requests are <code>GET /rotas/{id}</code>,
+ * the rest are <code>POST /rotas</code>, over <code>load.rotas</code> rotas created up front.
+ * <p>
+ * Requests due while <code>load.maxInFlight</code> requests are outstanding are dropped, and recorded as failed
+ * with the maximum latency, so that the percentiles still account for them.
+ * <p>
+ * Without <code>load.target</code> the application is started in-process with the <code>in-memory</code> profile,
+ * so the whole request path can be measured without a cluster:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:java@load-test -Dload.rate=5000 -Dload.duration=60
+ * </pre>
+ * The generator runs in the Maven JVM, so every <code>-D</code> property applies: <code>load.target</code>,
+ * <code>load.rate</code>, <code>load.duration</code>, <code>load.readRatio</code>, <code>load.rotas</code>,
+ * <code>load.maxInFlight</code>, and the usual <code>rota.inMemory.*</code> properties setting latency of the
+ * in-memory repository.
+ */
+public final class RotaLoadGenerator {
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long TICK_MICROS = 500;
+
+    private final WebClient client;
+    private final int rotaCount;
+    private final double readRatio;
+    private final int maxInFlight;
+    private final Histogram reads = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+    private final Histogram writes = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private RotaLoadGenerator(WebClient client, int rotaCount, double readRatio, int maxInFlight) {
+        this.client = client;
+        this.rotaCount = rotaCount;
+        this.readRatio = readRatio;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String target = System.getProperty("load.target", "");
+        int rate = Integer.getInteger("load.rate", 1000);
+        int durationSeconds = Integer.getInteger("load.duration", 30);
+        double readRatio = Double.parseDouble(System.getProperty("load.readRatio", "0.9"));
+        int rotaCount = Integer.getInteger("load.rotas", 10_000);
+        int maxInFlight = Integer.getInteger("load.maxInFlight", 10_000);
+
+        ConfigurableApplicationContext app = null;
+        if (target.isBlank()) {
+            app = new SpringApplicationBuilder(LiquibaseApp.class)
+                    .profiles("in-memory")
+                    .properties("server.port=0")
+                    .run(args);
+            target = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            ConnectionProvider connections = ConnectionProvider.builder("load-test")
+                    .maxConnections(maxInFlight)
+                    .pendingAcquireMaxCount(-1)
+                    .build();
+            WebClient client = WebClient.builder()
+                    .baseUrl(target)
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                    .build();
+            RotaLoadGenerator generator = new RotaLoadGenerator(client, rotaCount, readRatio, maxInFlight);
+            generator.preload();
+            generator.run(rate, Duration.ofSeconds(durationSeconds));
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+    }
+
+    private void preload() {
+        long start = System.nanoTime();
+        Flux.range(0, rotaCount)
+                .flatMap(this::save, 64)
+                .blockLast();
+        System.out.printf(Locale.ROOT, "Created %d rotas in %d ms%n", rotaCount,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void run(int rate, Duration duration) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = rate * duration.getSeconds();
+        AtomicLong issued = new AtomicLong();
+        long start = System.nanoTime();
+
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+        ticker.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            long due = Math.min(total, (now - start) / intervalNanos + 1);
+            for (long i = issued.get(); i < due; i = issued.incrementAndGet()) {
+                issue(start + i * intervalNanos);
+            }
+        }, 0, TICK_MICROS, TimeUnit.MICROSECONDS);
+
+        while (issued.get() < total) {
+            Thread.sleep(100);
+        }
+        ticker.shutdownNow();
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        report(rate, System.nanoTime() - start);
+    }
+
+    private void issue(long intendedStart) {
+        int rotaId = ThreadLocalRandom.current().nextInt(rotaCount);
+        boolean read = ThreadLocalRandom.current().nextDouble() < readRatio;
+        Histogram histogram = read ? reads : writes;
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            histogram.recordValue(MAX_LATENCY_NANOS);
+            dropped.incrementAndGet();
+            return;
+        }
+        Mono<?> request = read ? find(rotaId) : save(rotaId);
+        request.doFinally(signal -> {
+                    histogram.recordValue(Math.min(MAX_LATENCY_NANOS, System.nanoTime() - intendedStart));
+                    inFlight.decrementAndGet();
+                })
+                .subscribe(response -> { }, error -> {
+                    if (error instanceof WebClientResponseException.ServiceUnavailable) {
+                        rejected.incrementAndGet();
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                });
+    }
+
+    private Mono<?> find(int rotaId) {
+        return client.get()
+                .uri("/rotas/{rotaId}", "rota::" + rotaId)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private Mono<?> save(int rotaId) {
+        return client.post()
+                .uri("/rotas")
+                .bodyValue(Map.of("id", "rota::" + rotaId, "name", "Load test rota " + rotaId))
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private void report(int rate, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long completed = reads.getTotalCount() + writes.getTotalCount() - dropped.get();
+        System.out.printf(Locale.ROOT, "Target %d req/s, achieved %.1f req/s, %d errors, %d rejected, %d dropped%n",
+                rate, completed / seconds, errors.get(), rejected.get(), dropped.get());
+        System.out.printf(Locale.ROOT, "%-6s %10s %9s %9s %9s %9s %9s%n",
+                "", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        print("GET", reads);
+        print("POST", writes);
+    }
+
+    private static void print(String name, Histogram histogram) {
+        System.out.printf(Locale.ROOT, "%-6s %10d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
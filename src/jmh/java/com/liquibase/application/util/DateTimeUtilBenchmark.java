@@ -0,0 +1,109 @@
+package com.liquibase.application.util;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.util.Pair;
+
+/**
+ * Benchmarks of Tesco week and shift time helpers of {@link DateTimeUtil}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateTimeUtilBenchmark {
+    private static final int SAMPLES = 1024;
+
+    private final LocalDate[] days = new LocalDate[SAMPLES];
+
+    private final LocalDate[] weekStarts = new LocalDate[SAMPLES];
+
+    private final int[] years = new int[SAMPLES];
+
+    private final int[] weeks = new int[SAMPLES];
+
+    private final LocalTime[] times = new LocalTime[SAMPLES];
+
+    private final LocalTime[] flexes = new LocalTime[SAMPLES];
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate origin = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < SAMPLES; i++) {
+            days[i] = origin.plusDays(random.nextInt(365 * 15));
+            years[i] = DateTimeUtil.getTescoFinancialYear(days[i]);
+            weeks[i] = DateTimeUtil.getTescoWeekByDayInWeek(days[i]);
+            weekStarts[i] = DateTimeUtil.getStartDateOfTescoWeek(years[i], weeks[i]);
+            times[i] = LocalTime.ofSecondOfDay(random.nextInt(24 * 60 * 60));
+            flexes[i] = LocalTime.of(0, random.nextInt(60));
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (SAMPLES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public int getTescoWeekByStartDate() {
+        return DateTimeUtil.getTescoWeekByStartDate(weekStarts[nextIndex()]);
+    }
+
+    @Benchmark
+    public int getTescoWeekByDayInWeek() {
+        return DateTimeUtil.getTescoWeekByDayInWeek(days[nextIndex()]);
+    }
+
+    @Benchmark
+    public Integer getTescoFinancialYear() {
+        return DateTimeUtil.getTescoFinancialYear(days[nextIndex()]);
+    }
+
+    @Benchmark
+    public LocalDate getStartDateOfTescoWeek() {
+        int i = nextIndex();
+        return DateTimeUtil.getStartDateOfTescoWeek(years[i], weeks[i]);
+    }
+
+    @Benchmark
+    public Long getTescoWeeksOfYear() {
+        LocalDate day = days[nextIndex()];
+        return DateTimeUtil.getTescoWeeks(day, day.plusYears(1)).count().block();
+    }
+
+    @Benchmark
+    public Pair<LocalTime, LocalTime> calculateEarliestAndLatestTimes() {
+        int i = nextIndex();
+        return DateTimeUtil.calculateEarliestAndLatestTimes(times[i], flexes[i]);
+    }
+
+    @Benchmark
+    public Pair<LocalTime, LocalTime> calculateBaseTimeAndFlex() {
+        int i = nextIndex();
+        return DateTimeUtil.calculateBaseTimeAndFlex(times[i], times[i].plusMinutes(flexes[i].getMinute() * 2L));
+    }
+
+    @Benchmark
+    public long shiftWindow() {
+        int i = nextIndex();
+        return DateTimeUtil.shiftWindow(times[i], flexes[i]);
+    }
+}
@@ -0,0 +1,162 @@
+package com.liquibase.application.util;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.util.Pair;
+
+/**
+ * Compares finding drivers, who cover a shift window on a day, with {@link ShiftWindowIndex} and with a scan
+ * over boxed windows and days, for a single depot and for all depots one after another or in parallel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShiftWindowIndexBenchmark {
+    private static final int SAMPLES = 1024;
+    private static final int DAYS = 364;
+    private static final int WORKING_DAYS_MASK = 0b0011111;
+
+    @Param({"64"})
+    private int depotCount;
+
+    @Param({"500"})
+    private int driversPerDepot;
+
+    private final Map<Integer, ShiftWindowIndex> indexes = new HashMap<>();
+
+    private final Map<Integer, List<BoxedShift>> boxedShifts = new HashMap<>();
+
+    private final long[] windows = new long[SAMPLES];
+
+    private final long[] epochDays = new long[SAMPLES];
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        long firstDay = LocalDate.of(2023, 2, 26).toEpochDay();
+        for (int depot = 0; depot < depotCount; depot++) {
+            ShiftWindowIndex.Builder builder = ShiftWindowIndex.builder();
+            List<BoxedShift> shifts = new ArrayList<>(driversPerDepot);
+            for (int driver = 0; driver < driversPerDepot; driver++) {
+                LocalTime base = LocalTime.ofSecondOfDay(random.nextInt(24 * 4) * 15 * 60L);
+                LocalTime flex = LocalTime.of(random.nextInt(1, 6), 0);
+                DayCoverage coverage = new DayCoverage(firstDay)
+                        .addWeekly(firstDay, firstDay + DAYS - 1, WORKING_DAYS_MASK << random.nextInt(3));
+                builder.add(driver, DateTimeUtil.shiftWindow(base, flex), coverage);
+
+                Set<LocalDate> days = new HashSet<>();
+                for (long day = firstDay; day < firstDay + DAYS; day++) {
+                    if (coverage.covers(day)) {
+                        days.add(LocalDate.ofEpochDay(day));
+                    }
+                }
+                shifts.add(new BoxedShift(driver, DateTimeUtil.calculateEarliestAndLatestTimes(base, flex), days));
+            }
+            indexes.put(depot, builder.build());
+            boxedShifts.put(depot, shifts);
+        }
+        for (int i = 0; i < SAMPLES; i++) {
+            int start = random.nextInt(24 * 4) * 15 * 60;
+            // only windows within a day, the boxed scan handles no windows crossing midnight
+            windows[i] = ShiftWindow.of(start, Math.min(ShiftWindow.SECONDS_PER_DAY - 1, start + 2 * 60 * 60));
+            epochDays[i] = firstDay + random.nextInt(DAYS);
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (SAMPLES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public int[] indexOneDepot() {
+        int i = nextIndex();
+        return indexes.get(i % depotCount).covering(windows[i], epochDays[i]);
+    }
+
+    @Benchmark
+    public List<Integer> boxedOneDepot() {
+        int i = nextIndex();
+        return boxedCovering(boxedShifts.get(i % depotCount), windows[i], epochDays[i]);
+    }
+
+    @Benchmark
+    public int indexAllDepots() {
+        int i = nextIndex();
+        int found = 0;
+        for (ShiftWindowIndex index : indexes.values()) {
+            found += index.covering(windows[i], epochDays[i]).length;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public Map<Integer, int[]> indexAllDepotsInParallel() {
+        int i = nextIndex();
+        return ShiftWindowIndex.coveringByDepot(indexes, windows[i], epochDays[i]);
+    }
+
+    @Benchmark
+    public int boxedAllDepots() {
+        int i = nextIndex();
+        int found = 0;
+        for (List<BoxedShift> shifts : boxedShifts.values()) {
+            found += boxedCovering(shifts, windows[i], epochDays[i]).size();
+        }
+        return found;
+    }
+
+    private static List<Integer> boxedCovering(List<BoxedShift> shifts, long window, long epochDay) {
+        LocalTime start = ShiftWindow.startTime(window);
+        LocalTime end = ShiftWindow.endTime(window);
+        LocalDate day = LocalDate.ofEpochDay(epochDay);
+        List<Integer> found = new ArrayList<>();
+        for (BoxedShift shift : shifts) {
+            Pair<LocalTime, LocalTime> times = shift.times;
+            if (!times.getFirst().isAfter(start) && !times.getSecond().isBefore(end) && shift.days.contains(day)) {
+                found.add(shift.driver);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Shift of a driver, the way it's kept without the index.
+     */
+    private static final class BoxedShift {
+        private final Integer driver;
+        private final Pair<LocalTime, LocalTime> times;
+        private final Set<LocalDate> days;
+
+        private BoxedShift(Integer driver, Pair<LocalTime, LocalTime> times, Set<LocalDate> days) {
+            this.driver = driver;
+            this.times = times;
+            this.days = days;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.liquibase.application.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import com.liquibase.application.util.AimdLimit;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Limits how many rota requests are served at the same time, answering the rest right away with
+ * 503 Service Unavailable and a <code>Retry-After</code> header instead of queueing them in front of Couchbase.
+ * <p>
+ * Reads and writes have separate {@link AimdLimit limits}, which follow the latency of the requests: a request
+ * slower than <code>rota.admission.latencyThreshold</code>, or failed with 5xx, shrinks its limit, fast requests
+ * let it grow back. Only routes of a single rota are admitted, <code>GET /rotas/{rotaId}</code> as a read and
+ * <code>POST /rotas</code> or <code>PATCH /rotas/{rotaId}</code> as writes, so their latency is that of a single KV
+ * round trip. Multi-gets, depot listings and <code>/rotas/bulk</code> take naturally longer, their duration says
+ * nothing about the backend, and they would only push the limits down for everyone.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "rota.admission.enabled", matchIfMissing = true)
+@RequiredArgsConstructor
+public class AdmissionControlFilter implements WebFilter {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Routes of a single rota admitted as reads, on GET and HEAD.
+     */
+    @Value("${rota.admission.readPaths:/rotas/*}")
+    private List<String> readPaths;
+
+    /**
+     * Routes of a single rota admitted as writes, on other methods.
+     */
+    @Value("${rota.admission.writePaths:/rotas,/rotas/*}")
+    private List<String> writePaths;
+
+    @Value("${rota.admission.excludedPaths:/rotas/bulk}")
+    private List<String> excludedPaths;
+
+    @Value("${rota.admission.initialLimit:64}")
+    private int initialLimit;
+
+    @Value("${rota.admission.minLimit:8}")
+    private int minLimit;
+
+    @Value("${rota.admission.maxLimit:1024}")
+    private int maxLimit;
+
+    /**
+     * Requests slower than this make the limit shrink.
+     */
+    @Value("${rota.admission.latencyThreshold:50ms}")
+    private Duration latencyThreshold;
+
+    /**
+     * Factor the limit is multiplied by on a slow or failed request.
+     */
+    @Value("${rota.admission.backoffRatio:0.9}")
+    private double backoffRatio;
+
+    private List<PathPattern> readPathPatterns;
+    private List<PathPattern> writePathPatterns;
+    private List<PathPattern> excludedPathPatterns;
+    private AimdLimit reads;
+    private AimdLimit writes;
+
+    @PostConstruct
+    void init() {
+        readPathPatterns = parse(readPaths);
+        writePathPatterns = parse(writePaths);
+        excludedPathPatterns = parse(excludedPaths);
+        reads = newLimit();
+        writes = newLimit();
+        registerMetrics("read", reads);
+        registerMetrics("write", writes);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        HttpMethod method = exchange.getRequest().getMethod();
+        boolean read = method == HttpMethod.GET || method == HttpMethod.HEAD;
+        List<PathPattern> admittedPatterns = read ? readPathPatterns : writePathPatterns;
+        if (admittedPatterns.stream().noneMatch(pattern -> pattern.matches(path))
+                || excludedPathPatterns.stream().anyMatch(pattern -> pattern.matches(path))) {
+            return chain.filter(exchange);
+        }
+        AimdLimit limit = read ? reads : writes;
+        if (!limit.tryAcquire()) {
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            return exchange.getResponse().setComplete();
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    HttpStatus status = exchange.getResponse().getStatusCode();
+                    boolean failed = signal == SignalType.ON_ERROR || status != null && status.is5xxServerError();
+                    limit.release(start, failed);
+                });
+    }
+
+    private AimdLimit newLimit() {
+        return new AimdLimit(initialLimit, minLimit, maxLimit, latencyThreshold.toNanos(), backoffRatio);
+    }
+
+    private void registerMetrics(String type, AimdLimit limit) {
+        Gauge.builder("rota.admission.limit", limit, AimdLimit::getLimit)
+                .tag("type", type)
+                .description("Current limit of concurrent rota requests")
+                .register(meterRegistry);
+        Gauge.builder("rota.admission.in.flight", limit, AimdLimit::getInFlight)
+                .tag("type", type)
+                .description("Rota requests being served")
+                .register(meterRegistry);
+        FunctionCounter.builder("rota.admission.rejected", limit, AimdLimit::getRejected)
+                .tag("type", type)
+                .description("Rota requests rejected, because the limit was reached")
+                .register(meterRegistry);
+    }
+
+    private static List<PathPattern> parse(List<String> patterns) {
+        return patterns.stream()
+                .filter(pattern -> !pattern.isBlank())
+                .map(pattern -> PathPatternParser.defaultInstance.parse(pattern.trim()))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,12 +1,17 @@
 package com.liquibase.application.config;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 
-import com.liquibase.application.util.DateTimeUtil;
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.env.ClusterEnvironment;
+import com.liquibase.application.migration.DeferredIndexBuilder;
+import com.liquibase.application.util.DateTimeCodecs;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -41,10 +46,12 @@ public class CouchbaseConfig extends AbstractCouchbaseConfiguration {
     private long waitIndexesInSeconds;
 
     private final Environment env;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
 
     @Autowired
-    public CouchbaseConfig(Environment env) {
+    public CouchbaseConfig(Environment env, ObjectProvider<MeterRegistry> meterRegistry) {
         this.env = env;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -67,6 +74,25 @@ public class CouchbaseConfig extends AbstractCouchbaseConfiguration {
         return bucketName;
     }
 
+    /**
+     * Publishes latencies of all SDK requests into Micrometer, see {@link MicrometerCouchbaseMeter}.
+     */
+    @Override
+    protected void configureEnvironment(ClusterEnvironment.Builder builder) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            builder.meter(new MicrometerCouchbaseMeter(registry));
+        }
+    }
+
+    /**
+     * Builds deferred indexes of a migration run together, if enabled by <code>spring.couchmove.enabled</code>,
+     * waiting up to <code>spring.couchmove.waitIndexesInSeconds</code> for them to become online.
+     */
+    @Bean
+    public DeferredIndexBuilder deferredIndexBuilder(Cluster couchbaseCluster) {
+        return new DeferredIndexBuilder(couchbaseCluster, couchmoveEnabled, Duration.ofSeconds(waitIndexesInSeconds));
+    }
 
     @Bean
     public CustomConversions customConversions() {
@@ -84,7 +110,7 @@ public class CouchbaseConfig extends AbstractCouchbaseConfiguration {
 
         @Override
         public LocalTime convert(String source) {
-            return LocalTime.parse(source);
+            return DateTimeCodecs.parseIsoLocalTime(source);
         }
     }
 
@@ -97,7 +123,7 @@ public class CouchbaseConfig extends AbstractCouchbaseConfiguration {
 
         @Override
         public String convert(LocalTime source) {
-            return source.toString();
+            return DateTimeCodecs.formatIsoLocalTime(source);
         }
     }
 
@@ -110,7 +136,7 @@ public class CouchbaseConfig extends AbstractCouchbaseConfiguration {
 
         @Override
         public LocalDate convert(String source) {
-            return LocalDate.parse(source, DateTimeFormatter.ofPattern(DateTimeUtil.YYYY_MM_DD));
+            return DateTimeCodecs.parseLocalDate(source);
         }
     }
 
@@ -123,7 +149,7 @@ public class CouchbaseConfig extends AbstractCouchbaseConfiguration {
 
         @Override
         public String convert(LocalDate source) {
-            return source.format(DateTimeFormatter.ofPattern(DateTimeUtil.YYYY_MM_DD));
+            return DateTimeCodecs.formatLocalDate(source);
         }
     }
 }
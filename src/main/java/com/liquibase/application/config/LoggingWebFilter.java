@@ -0,0 +1,168 @@
+package com.liquibase.application.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Logs requests and responses with the beginning of their bodies, if <code>logging.web.extendedLogging</code>
+ * is set.
+ * <p>
+ * Bodies are tapped while they stream through: at most <code>logging.web.maxLoggingPayloadSize</code> bytes of each
+ * are copied, and buffers are neither held nor consumed. Paths matching <code>logging.web.excludedPatterns</code>
+ * aren't logged. Log lines are formatted and written on a separate thread, never on the event loop; if it falls
+ * behind, further log lines are dropped instead of slowing requests down.
+ */
+@Slf4j
+@Component
+public class LoggingWebFilter implements WebFilter {
+    private static final int LOG_QUEUE_CAPACITY = 1024;
+
+    private final boolean enabled;
+    private final int maxPayloadSize;
+    private final List<PathPattern> excludedPatterns;
+    private final ThreadPoolExecutor logExecutor;
+
+    public LoggingWebFilter(WebConfig webConfig) {
+        this.enabled = webConfig.isExtendedLogging();
+        this.maxPayloadSize = webConfig.getMaxLoggingPayloadSize() == null ? 0
+                : Math.max(0, webConfig.getMaxLoggingPayloadSize());
+        this.excludedPatterns = webConfig.getExcludedUrlPatterns() == null ? List.of()
+                : webConfig.getExcludedUrlPatterns().stream()
+                .filter(pattern -> !pattern.isBlank())
+                .map(pattern -> PathPatternParser.defaultInstance.parse(pattern.trim()))
+                .collect(Collectors.toList());
+        this.logExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(LOG_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "web-logging");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        logExecutor.shutdown();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled || isExcluded(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        PayloadCapture requestPayload = new PayloadCapture(maxPayloadSize);
+        PayloadCapture responsePayload = new PayloadCapture(maxPayloadSize);
+        ServerWebExchange tapped = exchange.mutate()
+                .request(new TappedRequest(exchange.getRequest(), requestPayload))
+                .response(new TappedResponse(exchange.getResponse(), responsePayload))
+                .build();
+        return chain.filter(tapped)
+                .doFinally(signal -> {
+                    ServerHttpRequest request = exchange.getRequest();
+                    HttpStatus status = exchange.getResponse().getStatusCode();
+                    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    logExecutor.execute(() -> log.info("{} {} -> {} in {} ms, request: {}, response: {}",
+                            request.getMethodValue(), request.getURI(), status, elapsedMillis, requestPayload,
+                            responsePayload));
+                });
+    }
+
+    private boolean isExcluded(ServerHttpRequest request) {
+        if (excludedPatterns.isEmpty()) {
+            return false;
+        }
+        PathContainer path = request.getPath().pathWithinApplication();
+        return excludedPatterns.stream().anyMatch(pattern -> pattern.matches(path));
+    }
+
+    /**
+     * First bytes of a body, copied as the body streams through.
+     */
+    private static final class PayloadCapture {
+        private final byte[] bytes;
+        private int captured;
+        private long total;
+
+        private PayloadCapture(int maxSize) {
+            this.bytes = new byte[maxSize];
+        }
+
+        private void append(DataBuffer buffer) {
+            int readable = buffer.readableByteCount();
+            int count = Math.min(readable, bytes.length - captured);
+            int offset = buffer.readPosition();
+            for (int i = 0; i < count; i++) {
+                bytes[captured + i] = buffer.getByte(offset + i);
+            }
+            captured += count;
+            total += readable;
+        }
+
+        @Override
+        public String toString() {
+            if (total == 0) {
+                return "<empty>";
+            }
+            String text = new String(bytes, 0, captured, StandardCharsets.UTF_8);
+            return total > captured ? text + "... (" + total + " bytes)" : text;
+        }
+    }
+
+    private static final class TappedRequest extends ServerHttpRequestDecorator {
+        private final PayloadCapture payload;
+
+        private TappedRequest(ServerHttpRequest delegate, PayloadCapture payload) {
+            super(delegate);
+            this.payload = payload;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return super.getBody().doOnNext(payload::append);
+        }
+    }
+
+    private static final class TappedResponse extends ServerHttpResponseDecorator {
+        private final PayloadCapture payload;
+
+        private TappedResponse(ServerHttpResponse delegate, PayloadCapture payload) {
+            super(delegate);
+            this.payload = payload;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.<DataBuffer>from(body).doOnNext(payload::append));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body)
+                    .map(part -> Flux.<DataBuffer>from(part).doOnNext(payload::append)));
+        }
+    }
+}
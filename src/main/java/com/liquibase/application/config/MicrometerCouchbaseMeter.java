@@ -0,0 +1,125 @@
+package com.liquibase.application.config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.couchbase.client.core.cnc.Counter;
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.ValueRecorder;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Couchbase SDK meter publishing into Micrometer.
+ * <p>
+ * The SDK reports the latency of every request in microseconds as <code>db.couchbase.operations</code>, which is
+ * published as the <code>couchbase.operations</code> timer. SDK tags are renamed to short Micrometer style ones
+ * (<code>service</code>, <code>operation</code>, <code>bucket</code>, <code>scope</code>, <code>collection</code>,
+ * <code>outcome</code>), they are low cardinality by design. Percentiles and histograms are configured by
+ * the usual <code>management.metrics.distribution</code> properties.
+ */
+public class MicrometerCouchbaseMeter implements Meter {
+    private static final String SDK_OPERATIONS = "db.couchbase.operations";
+    private static final String OPERATIONS = "couchbase.operations";
+    private static final Map<String, String> TAG_NAMES = Map.of(
+            "db.couchbase.service", "service",
+            "db.operation", "operation",
+            "db.name", "bucket",
+            "db.couchbase.scope", "scope",
+            "db.couchbase.collection", "collection",
+            "outcome", "outcome");
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<MeterKey, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MeterKey, ValueRecorder> valueRecorders = new ConcurrentHashMap<>();
+
+    public MicrometerCouchbaseMeter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Counter counter(String name, Map<String, String> tags) {
+        MeterKey key = new MeterKey(name, tags);
+        Counter existing = counters.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        return counters.computeIfAbsent(key.copy(), k -> {
+            io.micrometer.core.instrument.Counter counter = io.micrometer.core.instrument.Counter.builder(name)
+                    .tags(toTags(tags))
+                    .register(meterRegistry);
+            return counter::increment;
+        });
+    }
+
+    @Override
+    public ValueRecorder valueRecorder(String name, Map<String, String> tags) {
+        MeterKey key = new MeterKey(name, tags);
+        ValueRecorder existing = valueRecorders.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        return valueRecorders.computeIfAbsent(key.copy(), k -> {
+            if (SDK_OPERATIONS.equals(name)) {
+                Timer timer = Timer.builder(OPERATIONS)
+                        .description("Latency of Couchbase SDK requests")
+                        .tags(toTags(tags))
+                        .register(meterRegistry);
+                return micros -> timer.record(micros, TimeUnit.MICROSECONDS);
+            }
+            DistributionSummary summary = DistributionSummary.builder(name)
+                    .tags(toTags(tags))
+                    .register(meterRegistry);
+            return summary::record;
+        });
+    }
+
+    private static Tags toTags(Map<String, String> tags) {
+        return Tags.of(tags.entrySet().stream()
+                .map(tag -> Tag.of(TAG_NAMES.getOrDefault(tag.getKey(), tag.getKey()),
+                        tag.getValue() == null ? "none" : tag.getValue()))
+                .toArray(Tag[]::new));
+    }
+
+    /**
+     * Name and tags of a meter. The SDK asks for the same meters over and over, so tags are only copied
+     * when a new meter is registered.
+     */
+    private static final class MeterKey {
+        private final String name;
+        private final Map<String, String> tags;
+
+        private MeterKey(String name, Map<String, String> tags) {
+            this.name = name;
+            this.tags = tags;
+        }
+
+        private MeterKey copy() {
+            return new MeterKey(name, Collections.unmodifiableMap(new HashMap<>(tags)));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MeterKey)) {
+                return false;
+            }
+            MeterKey other = (MeterKey) o;
+            return name.equals(other.name) && tags.equals(other.tags);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + tags.hashCode();
+        }
+    }
+}
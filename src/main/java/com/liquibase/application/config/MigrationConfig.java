@@ -0,0 +1,144 @@
+package com.liquibase.application.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.Collection;
+import com.liquibase.application.migration.ChangeLogSummary;
+import com.liquibase.application.migration.CouchbaseMigrationRunner;
+import com.liquibase.application.migration.DeferredIndexBuilder;
+import com.liquibase.application.migration.MigrationCluster;
+import com.liquibase.application.migration.MigrationGateFilter;
+import com.liquibase.application.migration.MigrationHealthIndicator;
+import com.liquibase.application.migration.MigrationLease;
+import com.liquibase.application.migration.MigrationState;
+import com.liquibase.application.migration.MigrationsEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of Liquibase migrations.
+ */
+@Configuration
+public class MigrationConfig {
+    @Value("${spring.liquibase.couchbase.change-log}")
+    private String changeLog;
+
+    @Value("${spring.liquibase.couchbase.url}")
+    private String url;
+
+    @Value("${spring.liquibase.couchbase.username}")
+    private String username;
+
+    @Value("${spring.liquibase.couchbase.password}")
+    private String password;
+
+    @Value("${spring.liquibase.couchbase.parallelism:1}")
+    private int parallelism;
+
+    /**
+     * Changesets with a context are applied only if it's listed, with no contexts at all Liquibase applies them all.
+     */
+    @Value("${spring.liquibase.couchbase.contexts:default}")
+    private String contexts;
+
+    @Value("${spring.liquibase.couchbase.fast-path-enabled:true}")
+    private boolean fastPathEnabled;
+
+    @Value("${spring.liquibase.couchbase.lease-enabled:true}")
+    private boolean leaseEnabled;
+
+    @Value("${spring.liquibase.couchbase.lease-ttl:30s}")
+    private Duration leaseTtl;
+
+    @Value("${spring.liquibase.couchbase.lease-wait-time:10m}")
+    private Duration leaseWaitTime;
+
+    @Value("${spring.liquibase.couchbase.enabled:false}")
+    private boolean migrationsEnabled;
+
+    @Value("${spring.liquibase.couchbase.async:false}")
+    private boolean async;
+
+    @Value("${spring.couchbase.bucket}")
+    private String bucketName;
+
+    private final Cluster couchbaseCluster;
+
+    @Autowired
+    public MigrationConfig(Cluster couchbaseCluster) {
+        this.couchbaseCluster = couchbaseCluster;
+    }
+
+    @PostConstruct
+    void registerCluster() {
+        MigrationCluster.register(couchbaseCluster);
+    }
+
+    /**
+     * Applies the changelog in-app, if <code>spring.liquibase.couchbase.enabled</code> is set. Otherwise the changelog
+     * is applied with the Liquibase CLI and <code>db/changelog/liquibase.properties</code>, as before.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.liquibase.couchbase.enabled")
+    public CouchbaseMigrationRunner couchbaseMigrationRunner(DeferredIndexBuilder deferredIndexBuilder,
+                                                             MeterRegistry meterRegistry,
+                                                             MigrationState migrationState) {
+        Collection migrationCollection = couchbaseCluster.bucket(bucketName).defaultCollection();
+        return CouchbaseMigrationRunner.builder()
+                .changeLog(changeLog)
+                .url(url)
+                .username(username)
+                .password(password)
+                .deferredIndexBuilder(deferredIndexBuilder)
+                .parallelism(parallelism)
+                .contexts(contexts)
+                .changeLogSummary(fastPathEnabled ? new ChangeLogSummary(migrationCollection) : null)
+                .migrationLease(leaseEnabled
+                        ? new MigrationLease(migrationCollection, leaseTtl, leaseWaitTime, meterRegistry)
+                        : null)
+                .meterRegistry(meterRegistry)
+                .async(async)
+                .migrationState(migrationState)
+                .build();
+    }
+
+    @Bean
+    public MigrationState migrationState() {
+        MigrationState migrationState = new MigrationState();
+        if (!migrationsEnabled) {
+            migrationState.disabled();
+        }
+        return migrationState;
+    }
+
+    @Bean
+    public MigrationHealthIndicator migrationsHealthIndicator(MigrationState migrationState) {
+        return new MigrationHealthIndicator(migrationState);
+    }
+
+    @Bean
+    public MigrationsEndpoint migrationsEndpoint(MigrationState migrationState) {
+        return new MigrationsEndpoint(migrationState);
+    }
+
+    /**
+     * Answers rota requests with 503 until migrations complete, if
+     * <code>spring.liquibase.couchbase.gate-requests</code> is set. Useful together with
+     * <code>spring.liquibase.couchbase.async</code>.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.liquibase.couchbase.gate-requests")
+    public MigrationGateFilter migrationGateFilter(MigrationState migrationState,
+                                                   @Value("${spring.liquibase.couchbase.gated-paths:/rotas/**}")
+                                                   List<String> gatedPaths) {
+        return new MigrationGateFilter(migrationState, gatedPaths);
+    }
+}
@@ -1,12 +1,21 @@
 package com.liquibase.application.config;
 
+import java.util.List;
 import java.util.Set;
 
+import com.liquibase.application.domain.RotaDocumentRepo;
+import com.liquibase.application.domain.RotaPassthroughHandler;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.config.CorsRegistry;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
 
 /**
  * Additional configuration for Webflux.
@@ -32,4 +41,17 @@ public class WebConfig implements WebFluxConfigurer {
                 .allowedOrigins("*");
     }
 
+    /**
+     * Serves single rota reads from raw documents, if <code>rota.passthrough.enabled</code> is set.
+     * Router functions are mapped before controllers, so this route takes over <code>GET /rotas/{rotaId}</code>.
+     * Only fields listed in <code>rota.passthrough.projection</code> are returned along with the id.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rota.passthrough.enabled")
+    public RouterFunction<ServerResponse> rotaPassthroughRoute(RotaDocumentRepo rotaDocumentRepo,
+            @Value("${rota.passthrough.projection:name,depot,financialYear,weekNumber}") List<String> projection) {
+        RotaPassthroughHandler handler = new RotaPassthroughHandler(rotaDocumentRepo, projection);
+        return RouterFunctions.route(RequestPredicates.GET("/rotas/{rotaId}"), handler::getRota);
+    }
+
 }
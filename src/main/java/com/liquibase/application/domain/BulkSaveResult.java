@@ -0,0 +1,43 @@
+package com.liquibase.application.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of saving a single rota of a bulk request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkSaveResult {
+
+    /**
+     * Position of the rota in the request, starting from 0.
+     */
+    private long index;
+
+    private String id;
+
+    private Status status;
+
+    /**
+     * Why the rota wasn't saved, only present for {@link Status#ERROR}.
+     */
+    private String reason;
+
+    public static BulkSaveResult ok(long index, String id) {
+        return new BulkSaveResult(index, id, Status.OK, null);
+    }
+
+    public static BulkSaveResult error(long index, String id, String reason) {
+        return new BulkSaveResult(index, id, Status.ERROR, reason);
+    }
+
+    public enum Status {
+        OK,
+        ERROR
+    }
+}
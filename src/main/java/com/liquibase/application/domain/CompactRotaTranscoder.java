@@ -0,0 +1,172 @@
+package com.liquibase.application.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import com.couchbase.client.core.error.DecodingFailureException;
+import com.couchbase.client.core.error.EncodingFailureException;
+import com.couchbase.client.core.msg.kv.CodecFlags;
+import com.couchbase.client.java.codec.Transcoder;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Transcoder of {@link Rota} documents, writing the compact format and reading both formats.
+ * <p>
+ * The verbose format is the one of Spring Data: full field names and a <code>_class</code> field with the entity
+ * class name, which alone is most of a rota document. The compact format drops <code>_class</code>, tags the
+ * document with its version in <code>_v</code> instead and stores fields under short keys, e.g.
+ * <code>{"_v":1,"n":"Week 12"}</code> instead of
+ * <code>{"name":"Week 12","_class":"com.liquibase.application.domain.Rota"}</code>. Fields, which are indexed or
+ * queried, keep their full names. Both formats are JSON, so documents stay readable for N1QL and sub-document
+ * operations; if a document has both the short and the full key of a field, the short one wins.
+ * <p>
+ * The document id isn't part of the content, it's set by the caller.
+ */
+public final class CompactRotaTranscoder implements Transcoder {
+    public static final CompactRotaTranscoder INSTANCE = new CompactRotaTranscoder();
+
+    public static final String VERSION_FIELD = "_v";
+    public static final int VERSION = 1;
+
+    static final String NAME = "name";
+    static final String NAME_SHORT = "n";
+    static final String DEPOT = "depot";
+    static final String FINANCIAL_YEAR = "financialYear";
+    static final String WEEK_NUMBER = "weekNumber";
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int INITIAL_BUFFER_SIZE = 64;
+
+    private CompactRotaTranscoder() {
+    }
+
+    /**
+     * @param field full name of a rota field
+     * @return key the field is stored under in the compact format
+     */
+    public static String storedField(String field) {
+        return NAME.equals(field) ? NAME_SHORT : field;
+    }
+
+    @Override
+    public EncodedValue encode(Object input) {
+        if (!(input instanceof Rota)) {
+            throw new EncodingFailureException("Only rotas can be encoded, got " + input);
+        }
+        Rota rota = (Rota) input;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        try (JsonGenerator generator = JSON.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField(VERSION_FIELD, VERSION);
+            if (rota.getName() != null) {
+                generator.writeStringField(NAME_SHORT, rota.getName());
+            }
+            writeIndexedFields(generator, rota);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new EncodingFailureException("Failed to encode rota " + rota.getId(), e);
+        }
+        return new EncodedValue(out.toByteArray(), CodecFlags.JSON_COMPAT_FLAGS);
+    }
+
+    @Override
+    public <T> T decode(Class<T> target, byte[] input, int flags) {
+        if (!target.isAssignableFrom(Rota.class)) {
+            throw new DecodingFailureException("Only rotas can be decoded, got " + target);
+        }
+        return target.cast(decode(input));
+    }
+
+    /**
+     * Decodes a rota document in either format.
+     *
+     * @param input document content
+     * @return rota without an id
+     */
+    public Rota decode(byte[] input) {
+        Rota rota = new Rota();
+        String name = null;
+        String shortName = null;
+        try (JsonParser parser = JSON.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DecodingFailureException("Rota document is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case VERSION_FIELD:
+                        if (parser.getIntValue() > VERSION) {
+                            throw new DecodingFailureException("Unsupported rota document version "
+                                    + parser.getIntValue());
+                        }
+                        break;
+                    case NAME_SHORT:
+                        shortName = parser.getValueAsString();
+                        break;
+                    case NAME:
+                        name = parser.getValueAsString();
+                        break;
+                    case DEPOT:
+                        rota.setDepot(parser.getValueAsString());
+                        break;
+                    case FINANCIAL_YEAR:
+                        rota.setFinancialYear(intValue(parser));
+                        break;
+                    case WEEK_NUMBER:
+                        rota.setWeekNumber(intValue(parser));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new DecodingFailureException("Failed to decode rota document", e);
+        }
+        rota.setName(shortName != null ? shortName : name);
+        return rota;
+    }
+
+    /**
+     * Encodes a rota in the verbose format without <code>_class</code>, the way clients see rotas.
+     *
+     * @param rota rota to encode
+     * @return JSON of the rota without its id, null fields are left out
+     */
+    public byte[] encodeVerbose(Rota rota) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        try (JsonGenerator generator = JSON.createGenerator(out)) {
+            generator.writeStartObject();
+            if (rota.getName() != null) {
+                generator.writeStringField(NAME, rota.getName());
+            }
+            writeIndexedFields(generator, rota);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new EncodingFailureException("Failed to encode rota " + rota.getId(), e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes fields used by the rota query index, which keep their full names in every format.
+     */
+    private static void writeIndexedFields(JsonGenerator generator, Rota rota) throws IOException {
+        if (rota.getDepot() != null) {
+            generator.writeStringField(DEPOT, rota.getDepot());
+        }
+        if (rota.getFinancialYear() != null) {
+            generator.writeNumberField(FINANCIAL_YEAR, rota.getFinancialYear());
+        }
+        if (rota.getWeekNumber() != null) {
+            generator.writeNumberField(WEEK_NUMBER, rota.getWeekNumber());
+        }
+    }
+
+    private static Integer intValue(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getIntValue();
+    }
+}
@@ -0,0 +1,245 @@
+package com.liquibase.application.domain;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.couchbase.client.core.error.CasMismatchException;
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.java.ReactiveCluster;
+import com.couchbase.client.java.ReactiveCollection;
+import com.couchbase.client.java.codec.RawJsonTranscoder;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.GetOptions;
+import com.couchbase.client.java.kv.LookupInSpec;
+import com.couchbase.client.java.kv.MutateInOptions;
+import com.couchbase.client.java.kv.MutateInResult;
+import com.couchbase.client.java.kv.MutateInSpec;
+import com.couchbase.client.java.kv.MutationResult;
+import com.couchbase.client.java.kv.UpsertOptions;
+import com.couchbase.client.java.query.QueryOptions;
+import com.couchbase.client.java.query.ReactiveQueryResult;
+import com.liquibase.application.util.Keyspace;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.couchbase.CouchbaseClientFactory;
+import org.springframework.data.couchbase.core.convert.CouchbaseConverter;
+import org.springframework.data.couchbase.core.convert.translation.TranslationService;
+import org.springframework.data.couchbase.core.mapping.CouchbaseDocument;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * {@link RotaDocumentRepo} on top of the reactive Couchbase KV API.
+ * <p>
+ * Rotas are written with the Spring Data converter, so documents stay compatible with {@link RotaRepo}, or,
+ * with <code>rota.storage.compact</code>, in the compact format of {@link CompactRotaTranscoder}. Documents of
+ * both formats are read, so the format can be switched while documents are being rewritten.
+ */
+@Repository
+@Profile("!in-memory")
+public class CouchbaseRotaDocumentRepo implements RotaDocumentRepo {
+    private static final String AFTER_CONDITION = " AND r.financialYear >= $afterYear"
+            + " AND (r.financialYear > $afterYear OR r.financialYear = $afterYear"
+            + " AND (r.weekNumber > $afterWeek OR r.weekNumber = $afterWeek AND META(r).id > $afterId))";
+    private static final int MAX_PATCH_RETRIES = 3;
+
+    private final Keyspace keyspace;
+    private final ReactiveCluster cluster;
+    private final ReactiveCollection collection;
+    private final CouchbaseConverter converter;
+    private final TranslationService translationService;
+    private final boolean compact;
+
+    @Autowired
+    public CouchbaseRotaDocumentRepo(CouchbaseClientFactory clientFactory, CouchbaseConverter converter,
+            TranslationService translationService, @Value("${rota.storage.compact:false}") boolean compact) {
+        this.keyspace = Keyspace.defaultCollection(clientFactory.getBucket().name());
+        this.cluster = clientFactory.getCluster().reactive();
+        this.collection = clientFactory.getBucket().defaultCollection().reactive();
+        this.converter = converter;
+        this.translationService = translationService;
+        this.compact = compact;
+    }
+
+    @Override
+    public Keyspace keyspace() {
+        return keyspace;
+    }
+
+    @Override
+    public Mono<VersionedRota> findById(String id) {
+        return collection.get(id, GetOptions.getOptions().transcoder(CompactRotaTranscoder.INSTANCE))
+                .map(result -> {
+                    Rota rota = result.contentAs(Rota.class);
+                    rota.setId(id);
+                    return new VersionedRota(rota, result.cas());
+                })
+                .onErrorResume(DocumentNotFoundException.class, e -> Mono.empty());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * With the compact format documents can't be passed through as they are: they are decoded and written
+     * with full field names again.
+     */
+    @Override
+    public Mono<byte[]> findRawById(String id, List<String> projection) {
+        GetOptions options = GetOptions.getOptions().transcoder(RawJsonTranscoder.INSTANCE);
+        if (!projection.isEmpty()) {
+            options.project(compact ? withStoredFields(projection) : projection);
+        }
+        return collection.get(id, options)
+                .map(result -> result.contentAs(byte[].class))
+                .map(json -> compact
+                        ? CompactRotaTranscoder.INSTANCE.encodeVerbose(CompactRotaTranscoder.INSTANCE.decode(json))
+                        : json)
+                .onErrorResume(DocumentNotFoundException.class, e -> Mono.empty());
+    }
+
+    @Override
+    public Mono<Long> upsert(Rota rota) {
+        if (rota.getId() == null) {
+            return Mono.error(new IllegalArgumentException("rota id must not be null"));
+        }
+        if (compact) {
+            return collection.upsert(rota.getId(), rota,
+                            UpsertOptions.upsertOptions().transcoder(CompactRotaTranscoder.INSTANCE))
+                    .map(MutationResult::cas);
+        }
+        return Mono.fromSupplier(() -> encode(rota))
+                .flatMap(json -> collection.upsert(rota.getId(), json,
+                        UpsertOptions.upsertOptions().transcoder(RawJsonTranscoder.INSTANCE)))
+                .map(MutationResult::cas);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A field with a short name is stored under either name, depending on whether the document was rewritten yet.
+     * Changing the wrong one would leave the other one winning on read, and removing a field, which isn't there,
+     * would fail the whole mutation. So names of such fields are looked up first, and the mutation is applied only
+     * if the document didn't change since, retrying otherwise if no CAS was given.
+     */
+    @Override
+    public Mono<Long> patch(String id, Map<String, Object> changes, long cas) {
+        List<String> paths = changes.entrySet().stream()
+                .filter(change -> change.getValue() == null || storedNames(change.getKey()).size() > 1)
+                .flatMap(change -> storedNames(change.getKey()).stream())
+                .distinct()
+                .collect(Collectors.toList());
+        if (paths.isEmpty()) {
+            return mutate(id, changes, Set.of(), cas);
+        }
+        List<LookupInSpec> lookups = paths.stream()
+                .map(LookupInSpec::exists)
+                .collect(Collectors.toList());
+        return collection.lookupIn(id, lookups)
+                .flatMap(result -> {
+                    if (cas != 0 && cas != result.cas()) {
+                        return Mono.error(new CasMismatchException(null));
+                    }
+                    Set<String> existing = new HashSet<>();
+                    for (int i = 0; i < paths.size(); i++) {
+                        if (result.exists(i)) {
+                            existing.add(paths.get(i));
+                        }
+                    }
+                    return mutate(id, changes, existing, result.cas());
+                })
+                .retryWhen(Retry.max(MAX_PATCH_RETRIES).filter(e -> cas == 0 && e instanceof CasMismatchException))
+                .onErrorResume(DocumentNotFoundException.class, e -> Mono.empty());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The query is covered by the <code>rotaDepotWeekIndex</code> index, only ids and sort keys are read.
+     */
+    @Override
+    public Mono<List<RotaPosition>> findPage(String depot, Integer financialYear, Integer weekNumber,
+                                             RotaPosition after, int limit) {
+        StringBuilder statement = new StringBuilder("SELECT META(r).id AS id, r.financialYear, r.weekNumber FROM ")
+                .append(keyspace.toN1qlPath())
+                .append(" AS r WHERE r.depot = $depot AND r.financialYear IS VALUED AND r.weekNumber IS VALUED");
+        JsonObject parameters = JsonObject.create()
+                .put("depot", depot)
+                .put("limit", limit);
+        if (financialYear != null) {
+            statement.append(" AND r.financialYear = $financialYear");
+            parameters.put("financialYear", financialYear);
+        }
+        if (weekNumber != null) {
+            statement.append(" AND r.weekNumber = $weekNumber");
+            parameters.put("weekNumber", weekNumber);
+        }
+        if (after != null) {
+            statement.append(AFTER_CONDITION);
+            parameters.put("afterYear", after.getFinancialYear())
+                    .put("afterWeek", after.getWeekNumber())
+                    .put("afterId", after.getId());
+        }
+        statement.append(" ORDER BY r.financialYear, r.weekNumber, META(r).id LIMIT $limit");
+        return cluster.query(statement.toString(), QueryOptions.queryOptions()
+                        .parameters(parameters)
+                        .adhoc(false))
+                .flatMapMany(ReactiveQueryResult::rowsAsObject)
+                .map(row -> new RotaPosition(row.getString("id"), row.getInt("financialYear"),
+                        row.getInt("weekNumber")))
+                .collectList();
+    }
+
+    private String encode(Rota rota) {
+        CouchbaseDocument document = new CouchbaseDocument();
+        converter.write(rota, document);
+        return translationService.encode(document);
+    }
+
+    /**
+     * @param existing paths known to exist in the document, fields are changed under the name found there
+     */
+    private Mono<Long> mutate(String id, Map<String, Object> changes, Set<String> existing, long cas) {
+        List<MutateInSpec> specs = new ArrayList<>();
+        changes.forEach((field, value) -> {
+            String key = storedNames(field).stream().filter(existing::contains).findFirst().orElse(field);
+            if (value != null) {
+                specs.add(MutateInSpec.upsert(key, value));
+            } else if (existing.contains(key)) {
+                specs.add(MutateInSpec.remove(key));
+            }
+        });
+        if (specs.isEmpty()) {
+            return Mono.just(cas);
+        }
+        return collection.mutateIn(id, specs, MutateInOptions.mutateInOptions().cas(cas))
+                .map(MutateInResult::cas)
+                .onErrorResume(DocumentNotFoundException.class, e -> Mono.empty());
+    }
+
+    /**
+     * @return names a field may be stored under, the short one first as it wins on read
+     */
+    private static List<String> storedNames(String field) {
+        String stored = CompactRotaTranscoder.storedField(field);
+        return stored.equals(field) ? List.of(field) : List.of(stored, field);
+    }
+
+    /**
+     * Documents not rewritten yet still have full field names, so both names of a field are projected.
+     */
+    private static List<String> withStoredFields(List<String> fields) {
+        Set<String> projected = new LinkedHashSet<>();
+        for (String field : fields) {
+            projected.add(field);
+            projected.add(CompactRotaTranscoder.storedField(field));
+        }
+        return List.copyOf(projected);
+    }
+}
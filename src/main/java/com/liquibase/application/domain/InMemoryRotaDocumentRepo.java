@@ -0,0 +1,153 @@
+package com.liquibase.application.domain;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.couchbase.client.core.error.CasMismatchException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.liquibase.application.util.Keyspace;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link RotaDocumentRepo} keeping rotas in a concurrent map, for load tests and local runs without a cluster.
+ * Active with the <code>in-memory</code> profile.
+ * <p>
+ * Every operation can be delayed by <code>rota.inMemory.latency</code> plus a random jitter of up to
+ * <code>rota.inMemory.latencyJitter</code>, and fails with probability <code>rota.inMemory.failureRate</code>,
+ * to mimic a real cluster. CAS values grow with every write, like Couchbase ones do.
+ */
+@Repository
+@Profile("in-memory")
+public class InMemoryRotaDocumentRepo implements RotaDocumentRepo {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String ID_FIELD = "id";
+    private static final Comparator<RotaPosition> POSITION_ORDER = Comparator
+            .comparingInt(RotaPosition::getFinancialYear)
+            .thenComparingInt(RotaPosition::getWeekNumber)
+            .thenComparing(RotaPosition::getId);
+
+    private final ConcurrentMap<String, VersionedRota> rotas = new ConcurrentHashMap<>();
+    private final AtomicLong casSequence = new AtomicLong(System.currentTimeMillis() * 1_000_000);
+
+    @Value("${spring.couchbase.bucket:in-memory}")
+    private String bucketName;
+
+    @Value("${rota.inMemory.latency:0ms}")
+    private Duration latency;
+
+    @Value("${rota.inMemory.latencyJitter:0ms}")
+    private Duration latencyJitter;
+
+    @Value("${rota.inMemory.failureRate:0}")
+    private double failureRate;
+
+    @Override
+    public Keyspace keyspace() {
+        return Keyspace.defaultCollection(bucketName);
+    }
+
+    @Override
+    public Mono<VersionedRota> findById(String id) {
+        return operation(() -> Mono.justOrEmpty(rotas.get(id))
+                .map(stored -> new VersionedRota(stored.getRota().copy(), stored.getCas())));
+    }
+
+    @Override
+    public Mono<byte[]> findRawById(String id, List<String> projection) {
+        return operation(() -> Mono.justOrEmpty(rotas.get(id))
+                .map(stored -> {
+                    ObjectNode document = OBJECT_MAPPER.valueToTree(stored.getRota());
+                    document.remove(ID_FIELD);
+                    if (!projection.isEmpty()) {
+                        document.retain(projection);
+                    }
+                    return toBytes(document);
+                }));
+    }
+
+    @Override
+    public Mono<Long> upsert(Rota rota) {
+        if (rota.getId() == null) {
+            return Mono.error(new IllegalArgumentException("rota id must not be null"));
+        }
+        return operation(() -> {
+            long cas = casSequence.incrementAndGet();
+            rotas.put(rota.getId(), new VersionedRota(rota.copy(), cas));
+            return Mono.just(cas);
+        });
+    }
+
+    @Override
+    public Mono<Long> patch(String id, Map<String, Object> changes, long cas) {
+        return operation(() -> Mono.justOrEmpty(rotas.computeIfPresent(id, (key, stored) -> {
+            if (cas != 0 && cas != stored.getCas()) {
+                throw new CasMismatchException(null);
+            }
+            ObjectNode document = OBJECT_MAPPER.valueToTree(stored.getRota());
+            changes.forEach((field, value) -> {
+                if (value == null) {
+                    document.remove(field);
+                } else {
+                    document.set(field, OBJECT_MAPPER.valueToTree(value));
+                }
+            });
+            return new VersionedRota(OBJECT_MAPPER.convertValue(document, Rota.class), casSequence.incrementAndGet());
+        })).map(VersionedRota::getCas));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Scans all rotas for every page.
+     */
+    @Override
+    public Mono<List<RotaPosition>> findPage(String depot, Integer financialYear, Integer weekNumber,
+                                             RotaPosition after, int limit) {
+        return operation(() -> Mono.fromSupplier(() -> rotas.values().stream()
+                .map(VersionedRota::getRota)
+                .filter(rota -> depot.equals(rota.getDepot())
+                        && rota.getFinancialYear() != null && rota.getWeekNumber() != null
+                        && (financialYear == null || financialYear.equals(rota.getFinancialYear()))
+                        && (weekNumber == null || weekNumber.equals(rota.getWeekNumber())))
+                .map(rota -> new RotaPosition(rota.getId(), rota.getFinancialYear(), rota.getWeekNumber()))
+                .filter(position -> after == null || POSITION_ORDER.compare(position, after) > 0)
+                .sorted(POSITION_ORDER)
+                .limit(limit)
+                .collect(Collectors.toList())));
+    }
+
+    private <T> Mono<T> operation(Supplier<Mono<T>> operation) {
+        Mono<T> result = Mono.defer(() -> {
+            if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                return Mono.error(new IllegalStateException("Injected failure of in-memory rota repository"));
+            }
+            return operation.get();
+        });
+        long delayNanos = latency.toNanos();
+        if (latencyJitter.toNanos() > 0) {
+            delayNanos += ThreadLocalRandom.current().nextLong(latencyJitter.toNanos());
+        }
+        return delayNanos > 0 ? Mono.delay(Duration.ofNanos(delayNanos)).then(result) : result;
+    }
+
+    private static byte[] toBytes(ObjectNode document) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(document);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode rota document", e);
+        }
+    }
+}
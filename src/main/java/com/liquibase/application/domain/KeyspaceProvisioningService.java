@@ -0,0 +1,176 @@
+package com.liquibase.application.domain;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.couchbase.client.core.error.BucketNotFoundException;
+import com.couchbase.client.core.error.CollectionExistsException;
+import com.couchbase.client.core.error.ScopeExistsException;
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.ReactiveCluster;
+import com.couchbase.client.java.manager.bucket.BucketSettings;
+import com.couchbase.client.java.manager.collection.CollectionSpec;
+import com.couchbase.client.java.manager.collection.ReactiveCollectionManager;
+import com.couchbase.client.java.manager.collection.ScopeSpec;
+import com.liquibase.application.util.Keyspace;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Makes sure buckets, scopes and collections we write to exist.
+ * <p>
+ * Every keyspace is provisioned once per application run: the result is remembered in a concurrent registry,
+ * so concurrent first writes share a single provisioning call and later writes get an already completed
+ * {@link Mono}. A failure, e.g. for lack of admin permissions, is remembered too: writes don't wait for
+ * provisioning anymore, and it is retried in the background, not by the writes, with a backoff growing from
+ * {@link #MIN_RETRY_BACKOFF} to {@link #MAX_RETRY_BACKOFF}. Only the first failure is logged with its stack trace.
+ * With <code>rota.provisioning.enabled=false</code>, e.g. without a cluster, nothing is provisioned.
+ */
+@Slf4j
+@Service
+public class KeyspaceProvisioningService {
+    private static final Duration MIN_RETRY_BACKOFF = Duration.ofSeconds(10);
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofMinutes(10);
+
+    private final ReactiveCluster cluster;
+    private final ConcurrentMap<Keyspace, Provisioning> provisionings = new ConcurrentHashMap<>();
+
+    @Value("${rota.provisioning.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    public KeyspaceProvisioningService(Cluster cluster) {
+        this.cluster = cluster.reactive();
+    }
+
+    /**
+     * Provisions the keyspace if it wasn't done yet.
+     *
+     * @param keyspace keyspace to provision
+     * @return completes when the keyspace was checked, or right away if provisioning failed before; never fails
+     */
+    public Mono<Void> ensureProvisioned(Keyspace keyspace) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return provisionings.computeIfAbsent(keyspace, Provisioning::new).get();
+    }
+
+    private Mono<Void> provision(Keyspace keyspace) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return provisionBucket(keyspace)
+                    .then(provisionCollection(keyspace))
+                    .doOnSuccess(ignored -> log.info("Keyspace {} provisioned in {} ms", keyspace,
+                            (System.nanoTime() - start) / 1_000_000));
+        });
+    }
+
+    private Mono<Void> provisionBucket(Keyspace keyspace) {
+        return cluster.buckets().getBucket(keyspace.getBucket())
+                .then()
+                .onErrorResume(BucketNotFoundException.class, e -> {
+                    log.info("Creating bucket {}", keyspace.getBucket());
+                    return cluster.buckets().createBucket(BucketSettings.create(keyspace.getBucket()));
+                });
+    }
+
+    private Mono<Void> provisionCollection(Keyspace keyspace) {
+        if (keyspace.isDefaultCollection()) {
+            return Mono.empty();
+        }
+        ReactiveCollectionManager collections = cluster.bucket(keyspace.getBucket()).collections();
+        return collections.getAllScopes()
+                .filter(scope -> scope.name().equals(keyspace.getScope()))
+                .next()
+                .map(scope -> containsCollection(scope, keyspace))
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.info("Creating scope {} in bucket {}", keyspace.getScope(), keyspace.getBucket());
+                    return collections.createScope(keyspace.getScope())
+                            .onErrorResume(ScopeExistsException.class, e -> Mono.empty())
+                            .thenReturn(false);
+                }))
+                .flatMap(exists -> exists ? Mono.<Void>empty() : collections.createCollection(
+                                CollectionSpec.create(keyspace.getCollection(), keyspace.getScope()))
+                        .doOnSubscribe(s -> log.info("Creating collection {}", keyspace))
+                        .onErrorResume(CollectionExistsException.class, e -> Mono.empty()));
+    }
+
+    private static boolean containsCollection(ScopeSpec scope, Keyspace keyspace) {
+        return scope.collections().stream()
+                .anyMatch(collection -> collection.name().equals(keyspace.getCollection()));
+    }
+
+    /**
+     * Provisioning state of a keyspace: the last attempt and, if it failed, when to try again. Once the first
+     * attempt failed, callers don't wait for provisioning anymore until a retry in background succeeded.
+     */
+    private final class Provisioning {
+        private final Keyspace keyspace;
+        private Mono<Void> attempt;
+        private boolean failed;
+        private boolean retrying;
+        private int failures;
+        private long retryAtNanos;
+
+        private Provisioning(Keyspace keyspace) {
+            this.keyspace = keyspace;
+        }
+
+        private synchronized Mono<Void> get() {
+            if (attempt == null) {
+                attempt = start();
+                return attempt;
+            }
+            if (!failed) {
+                return attempt;
+            }
+            if (!retrying && System.nanoTime() - retryAtNanos >= 0) {
+                retrying = true;
+                attempt = start();
+                attempt.subscribe();
+            }
+            return Mono.empty();
+        }
+
+        private Mono<Void> start() {
+            return provision(keyspace)
+                    .doOnSuccess(done -> succeeded())
+                    .onErrorResume(e -> {
+                        failed(e);
+                        return Mono.empty();
+                    })
+                    .cache();
+        }
+
+        private synchronized void succeeded() {
+            if (failed) {
+                log.info("Provisioned keyspace {} after {} failed attempts", keyspace, failures);
+            }
+            failed = false;
+            retrying = false;
+            failures = 0;
+        }
+
+        private synchronized void failed(Throwable e) {
+            failed = true;
+            retrying = false;
+            failures++;
+            Duration backoff = MIN_RETRY_BACKOFF.multipliedBy(1L << Math.min(failures - 1, 6));
+            if (backoff.compareTo(MAX_RETRY_BACKOFF) > 0) {
+                backoff = MAX_RETRY_BACKOFF;
+            }
+            retryAtNanos = System.nanoTime() + backoff.toNanos();
+            if (failures == 1) {
+                log.warn("Failed to provision keyspace {}, will retry in {}", keyspace, backoff, e);
+            } else {
+                log.warn("Failed to provision keyspace {} {} times, will retry in {}: {}", keyspace, failures,
+                        backoff, e.toString());
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.liquibase.application.domain;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 
 import lombok.Data;
@@ -18,4 +20,34 @@ public class Rota {
 
     @NotBlank(message = "rota name must not be blank")
     private String name;
+
+    /**
+     * Depot the rota is planned for.
+     */
+    private String depot;
+
+    /**
+     * Tesco financial year of the rota week.
+     */
+    private Integer financialYear;
+
+    /**
+     * Tesco financial week of the rota.
+     */
+    @Min(value = 1, message = "rota week number must be between 1 and 53")
+    @Max(value = 53, message = "rota week number must be between 1 and 53")
+    private Integer weekNumber;
+
+    /**
+     * @return copy of this rota, which can be changed independently of it
+     */
+    public Rota copy() {
+        Rota copy = new Rota();
+        copy.setId(id);
+        copy.setName(name);
+        copy.setDepot(depot);
+        copy.setFinancialYear(financialYear);
+        copy.setWeekNumber(weekNumber);
+        return copy;
+    }
 }
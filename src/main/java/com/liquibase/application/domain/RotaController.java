@@ -1,12 +1,27 @@
 package com.liquibase.application.domain;
 
+import java.util.List;
+
+import javax.validation.Valid;
+
+import com.couchbase.client.core.error.CasMismatchException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -15,13 +30,91 @@ import reactor.core.publisher.Mono;
 public class RotaController {
     private final RotaService rotaService;
 
+    @Value("${rota.lookup.maxIds:500}")
+    private int maxLookupIds;
+
     @GetMapping(value = "/{rotaId}")
     public Mono<Rota> getRota(@PathVariable("rotaId") String rotaId) {
         return rotaService.findRotaById(rotaId);
     }
 
+    /**
+     * Looks up several rotas at once, e.g. <code>GET /rotas?ids=1,2,3</code>. Unknown ids are skipped. Together
+     * with <code>depot</code> the request is a depot listing, see {@link #getRotasOfDepot}.
+     */
+    @GetMapping(params = {"ids", "!depot"})
+    public Flux<Rota> getRotas(@RequestParam("ids") List<String> rotaIds) {
+        if (rotaIds.size() > maxLookupIds) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "at most " + maxLookupIds + " rotas can be requested at once"));
+        }
+        return rotaService.findRotasByIds(rotaIds);
+    }
+
+    /**
+     * Streams rotas of a depot as newline delimited JSON or server-sent events, e.g.
+     * <code>GET /rotas?depot=D042&amp;financialYear=2024&amp;weekNumber=12</code>, ordered by financial year,
+     * week number and id. Rotas are read as fast as the client consumes them.
+     */
+    @GetMapping(params = "depot", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Rota> getRotasOfDepot(@RequestParam("depot") String depot,
+            @RequestParam(value = "financialYear", required = false) Integer financialYear,
+            @RequestParam(value = "weekNumber", required = false) Integer weekNumber) {
+        if (weekNumber != null && financialYear == null) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "weekNumber requires financialYear"));
+        }
+        return rotaService.findRotasByDepot(depot, financialYear, weekNumber);
+    }
+
     @PostMapping
     public Mono<Rota> getRota(@RequestBody Rota rota) {
         return rotaService.save(rota);
     }
+
+    /**
+     * Changes only the given fields of a rota, optional fields set to null are removed. With <code>If-Match</code>
+     * holding the ETag of a previous change, the rota is only changed if nobody changed it since.
+     * Responds with the ETag of the changed rota.
+     */
+    @PatchMapping(value = "/{rotaId}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Void>> patchRota(@PathVariable("rotaId") String rotaId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody RotaPatch patch) {
+        return Mono.fromSupplier(() -> parseETag(ifMatch))
+                .flatMap(cas -> rotaService.patch(rotaId, patch, cas))
+                .map(cas -> ResponseEntity.noContent().eTag(Long.toString(cas)).<Void>build())
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "rota " + rotaId + " doesn't exist")))
+                .onErrorMap(CasMismatchException.class, e -> new ResponseStatusException(
+                        HttpStatus.PRECONDITION_FAILED, "rota " + rotaId + " was changed concurrently"));
+    }
+
+    /**
+     * Saves a stream of newline delimited rotas and streams back a result per rota. The body is split into lines
+     * here and every line is decoded on its own, so a malformed line doesn't fail the whole stream.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkSaveResult> saveRotas(@RequestBody Flux<String> lines) {
+        return rotaService.saveAll(lines);
+    }
+
+    private static long parseETag(String eTag) {
+        if (eTag == null || "*".equals(eTag.trim())) {
+            return 0;
+        }
+        String value = eTag.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "malformed If-Match header: " + eTag);
+        }
+    }
 }
@@ -0,0 +1,70 @@
+package com.liquibase.application.domain;
+
+import java.util.List;
+import java.util.Map;
+
+import com.liquibase.application.util.Keyspace;
+import reactor.core.publisher.Mono;
+
+/**
+ * Key-value access to {@link Rota} documents, for the cases where {@link RotaRepo} doesn't give enough control.
+ * Documents are stored in the same format as {@link RotaRepo} stores them, unless the compact format of
+ * {@link CompactRotaTranscoder} is enabled.
+ */
+public interface RotaDocumentRepo {
+
+    /**
+     * @return keyspace rota documents are stored in
+     */
+    Keyspace keyspace();
+
+    /**
+     * Reads the document of a rota.
+     *
+     * @param id rota id
+     * @return rota with CAS of its document, or empty if there is no such rota
+     */
+    Mono<VersionedRota> findById(String id);
+
+    /**
+     * Reads the stored JSON of a rota document as is, without mapping it.
+     *
+     * @param id         rota id
+     * @param projection document fields to read, all of them if empty
+     * @return JSON of the document (without the id), or empty if there is no such rota
+     */
+    Mono<byte[]> findRawById(String id, List<String> projection);
+
+    /**
+     * Inserts or replaces the document of the given rota.
+     *
+     * @param rota rota to store, must have an id
+     * @return CAS of the stored document
+     */
+    Mono<Long> upsert(Rota rota);
+
+    /**
+     * Changes single fields of a rota document in place, without reading and replacing the whole document.
+     *
+     * @param id      rota id
+     * @param changes fields to change with their new values, null values remove fields
+     * @param cas     expected CAS of the document, 0 to change it regardless of its CAS
+     * @return CAS of the changed document, or empty if there is no such rota
+     */
+    Mono<Long> patch(String id, Map<String, Object> changes, long cas);
+
+    /**
+     * Lists a page of rotas of a depot, ordered by financial year, week number and id. Rotas without a financial
+     * year or week aren't listed. Pages are found by the position of the last rota of the previous page, not by
+     * an offset, so every page takes the same time.
+     *
+     * @param depot         depot of the rotas
+     * @param financialYear financial year of the rotas, null for all years
+     * @param weekNumber    week number of the rotas, null for all weeks
+     * @param after         position to continue after, null for the first page
+     * @param limit         maximum number of rotas in the page
+     * @return positions of the rotas of the page, fewer than <code>limit</code> only for the last page
+     */
+    Mono<List<RotaPosition>> findPage(String depot, Integer financialYear, Integer weekNumber, RotaPosition after,
+                                      int limit);
+}
@@ -0,0 +1,194 @@
+package com.liquibase.application.domain;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Optional in-JVM cache of rotas in front of Couchbase.
+ * <p>
+ * Entries are bounded by count or, if <code>rota.cache.maxBytes</code> is set, by estimated size, expire after
+ * <code>rota.cache.ttl</code> and are evicted by Caffeine's W-TinyLFU policy. A cached entry is only ever replaced
+ * by a document with a higher CAS, and a read, which raced with our own write of the same rota, is not cached,
+ * so the cache never serves a rota older than our last write of it. The write stamp is checked and bumped within
+ * the same atomic compute of the entry as the entry is replaced or removed, so a check can't pass just before
+ * a write and cache the older rota after it. The stamp is taken when the load from Couchbase actually starts, see
+ * {@link #stamped}, so a lookup joining a load, which started before a write, doesn't cache its result as if it had
+ * been read after the write. Callers get copies, never the cached or shared loaded instances.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RotaNearCache {
+    /**
+     * Number of write stamps, rotas are spread over them by id hash.
+     */
+    private static final int WRITE_STRIPES = 256;
+
+    /**
+     * Rough per-entry overhead of cache node, rota and strings in bytes.
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Incremented on every write of a rota falling into the stripe, lets reads detect a concurrent write.
+     */
+    private final AtomicLongArray writeStamps = new AtomicLongArray(WRITE_STRIPES);
+
+    @Value("${rota.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${rota.cache.maxEntries:10000}")
+    private long maxEntries;
+
+    @Value("${rota.cache.maxBytes:0}")
+    private long maxBytes;
+
+    @Value("${rota.cache.ttl:5m}")
+    private Duration ttl;
+
+    private Cache<String, VersionedRota> cache;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .recordStats();
+        if (maxBytes > 0) {
+            builder.maximumWeight(maxBytes)
+                    .weigher((String id, VersionedRota value) -> estimateBytes(value.getRota()));
+        } else {
+            builder.maximumSize(maxEntries);
+        }
+        cache = CaffeineCacheMetrics.monitor(meterRegistry, builder.build(), "rotaNearCache");
+        log.info("Rota near cache enabled: maxEntries={}, maxBytes={}, ttl={}", maxEntries, maxBytes, ttl);
+    }
+
+    /**
+     * Returns a cached rota or loads and caches it.
+     *
+     * @param id     rota id
+     * @param loader loads a rota from Couchbase through {@link #stamped}, possibly sharing the load with other lookups
+     * @return cached or loaded rota
+     */
+    public Mono<Rota> get(String id, Function<String, Mono<StampedRota>> loader) {
+        if (cache == null) {
+            return loader.apply(id).map(StampedRota::copyRota);
+        }
+        return Mono.defer(() -> {
+            VersionedRota cached = cache.getIfPresent(id);
+            if (cached != null) {
+                return Mono.just(cached.getRota().copy());
+            }
+            return loader.apply(id)
+                    .doOnNext(loaded -> offer(id, new VersionedRota(loaded.copyRota(), loaded.rota.getCas()),
+                            loaded.stamp))
+                    .map(StampedRota::copyRota);
+        });
+    }
+
+    /**
+     * Loads a rota, taking the write stamp of the rota right before the load starts.
+     *
+     * @param id     rota id
+     * @param loader loads a rota from Couchbase
+     * @return loaded rota with the write stamp from before the load
+     */
+    public Mono<StampedRota> stamped(String id, Function<String, Mono<VersionedRota>> loader) {
+        return Mono.defer(() -> {
+            long stamp = writeStamps.get(stripe(id));
+            return loader.apply(id).map(loaded -> new StampedRota(loaded, stamp));
+        });
+    }
+
+    /**
+     * Refreshes the cache with a rota we have just written.
+     *
+     * @param rota written rota
+     * @param cas  CAS of the written document
+     */
+    public void put(Rota rota, long cas) {
+        if (cache == null) {
+            return;
+        }
+        VersionedRota written = new VersionedRota(rota.copy(), cas);
+        cache.asMap().compute(rota.getId(), (id, current) -> {
+            writeStamps.incrementAndGet(stripe(id));
+            return newer(current, written);
+        });
+    }
+
+    /**
+     * Drops a rota from the cache, e.g. after it was changed in a way we can't apply locally.
+     *
+     * @param id rota id
+     */
+    public void invalidate(String id) {
+        if (cache == null) {
+            return;
+        }
+        cache.asMap().compute(id, (key, current) -> {
+            writeStamps.incrementAndGet(stripe(key));
+            return null;
+        });
+    }
+
+    /**
+     * Caches a loaded rota, unless the rota was written since the load started.
+     */
+    private void offer(String id, VersionedRota loaded, long stamp) {
+        cache.asMap().compute(id, (key, current) -> writeStamps.get(stripe(key)) == stamp
+                ? newer(current, loaded)
+                : current);
+    }
+
+    private static VersionedRota newer(VersionedRota current, VersionedRota offered) {
+        return current == null || offered.getCas() > current.getCas() ? offered : current;
+    }
+
+    private static int stripe(String id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % WRITE_STRIPES;
+    }
+
+    private static int estimateBytes(Rota rota) {
+        return ENTRY_OVERHEAD_BYTES + 2 * (length(rota.getId()) + length(rota.getName()) + length(rota.getDepot()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * Loaded rota with the write stamp taken before the load started.
+     */
+    public static final class StampedRota {
+        private final VersionedRota rota;
+        private final long stamp;
+
+        private StampedRota(VersionedRota rota, long stamp) {
+            this.rota = rota;
+            this.stamp = stamp;
+        }
+
+        private Rota copyRota() {
+            return rota.getRota().copy();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.liquibase.application.domain;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves <code>GET /rotas/{rotaId}</code> straight from the stored document, without mapping it to a {@link Rota}
+ * and encoding it back to JSON.
+ * <p>
+ * The document is read with a projection of the declared fields, so storage metadata like <code>_class</code>
+ * doesn't leak into responses, and written to the response as is: its bytes are wrapped into a data buffer,
+ * preceded by a small buffer with the id, and never parsed or copied. The near cache and lookup coalescing
+ * of {@link RotaService} are bypassed.
+ */
+public class RotaPassthroughHandler {
+    private static final byte[] ID_PREFIX = {'{', '"', 'i', 'd', '"', ':', '"'};
+
+    private final RotaDocumentRepo rotaDocumentRepo;
+    private final List<String> projection;
+
+    public RotaPassthroughHandler(RotaDocumentRepo rotaDocumentRepo, List<String> projection) {
+        this.rotaDocumentRepo = rotaDocumentRepo;
+        this.projection = projection;
+    }
+
+    public Mono<ServerResponse> getRota(ServerRequest request) {
+        String rotaId = request.pathVariable("rotaId");
+        DataBufferFactory bufferFactory = request.exchange().getResponse().bufferFactory();
+        return rotaDocumentRepo.findRawById(rotaId, projection)
+                .flatMap(document -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(BodyInserters.fromDataBuffers(Flux.fromIterable(toJson(bufferFactory, rotaId,
+                                document)))))
+                .switchIfEmpty(ServerResponse.ok().build());
+    }
+
+    /**
+     * Adds the id to a stored document, wrapping the document without copying it.
+     *
+     * @param bufferFactory factory of response buffers
+     * @param id            id of the document
+     * @param document      JSON object of the document
+     * @return buffers with the JSON of the rota
+     */
+    static List<DataBuffer> toJson(DataBufferFactory bufferFactory, String id, byte[] document) {
+        int bodyStart = 0;
+        while (bodyStart < document.length && document[bodyStart] != '{') {
+            bodyStart++;
+        }
+        if (bodyStart == document.length) {
+            throw new IllegalArgumentException("Document " + id + " is not a JSON object");
+        }
+        bodyStart++;
+        int firstToken = bodyStart;
+        while (firstToken < document.length && Character.isWhitespace(document[firstToken])) {
+            firstToken++;
+        }
+        boolean emptyBody = firstToken < document.length && document[firstToken] == '}';
+
+        byte[] escapedId = JsonStringEncoder.getInstance().quoteAsUTF8(id);
+        byte[] head = new byte[ID_PREFIX.length + escapedId.length + (emptyBody ? 1 : 2)];
+        System.arraycopy(ID_PREFIX, 0, head, 0, ID_PREFIX.length);
+        System.arraycopy(escapedId, 0, head, ID_PREFIX.length, escapedId.length);
+        head[ID_PREFIX.length + escapedId.length] = '"';
+        if (!emptyBody) {
+            head[head.length - 1] = ',';
+        }
+        return List.of(bufferFactory.wrap(head),
+                bufferFactory.wrap(ByteBuffer.wrap(document, bodyStart, document.length - bodyStart)));
+    }
+}
@@ -0,0 +1,47 @@
+package com.liquibase.application.domain;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+
+import lombok.Data;
+import org.openapitools.jackson.nullable.JsonNullable;
+
+/**
+ * Partial update of a {@link Rota}: fields missing in the request are left untouched, optional fields set to null
+ * are removed from the document. The name is required, so it can be changed but not removed.
+ */
+@Data
+public class RotaPatch {
+
+    private JsonNullable<@NotBlank(message = "rota name must not be blank") String> name = JsonNullable.undefined();
+
+    private JsonNullable<String> depot = JsonNullable.undefined();
+
+    private JsonNullable<Integer> financialYear = JsonNullable.undefined();
+
+    private JsonNullable<@Min(value = 1, message = "rota week number must be between 1 and 53")
+            @Max(value = 53, message = "rota week number must be between 1 and 53") Integer> weekNumber =
+            JsonNullable.undefined();
+
+    /**
+     * @return document fields to change with their new values, a null value means the field is removed
+     */
+    public Map<String, Object> changes() {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        put(changes, "name", name);
+        put(changes, "depot", depot);
+        put(changes, "financialYear", financialYear);
+        put(changes, "weekNumber", weekNumber);
+        return changes;
+    }
+
+    private static void put(Map<String, Object> changes, String field, JsonNullable<?> value) {
+        if (value.isPresent()) {
+            changes.put(field, value.get());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.liquibase.application.domain;
+
+import lombok.Value;
+
+/**
+ * Position of a rota in listings of a depot, which are ordered by financial year, week number and id.
+ * Used as the key to continue a listing after.
+ */
+@Value
+public class RotaPosition {
+
+    String id;
+
+    int financialYear;
+
+    int weekNumber;
+}
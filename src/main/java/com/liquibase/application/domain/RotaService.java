@@ -1,8 +1,28 @@
 package com.liquibase.application.domain;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liquibase.application.util.RequestCoalescer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
@@ -12,17 +32,160 @@ public class RotaService {
     private static final String ROTA_ENTITY_TYPE = "rota";
     private static final String NAME_FIELD = "name";
 
-    private final RotaRepo rotaRepo;
-    private final CreateBucketService createBucketService;
+    private final RotaDocumentRepo rotaDocumentRepo;
+    private final RotaNearCache rotaNearCache;
+    private final KeyspaceProvisioningService keyspaceProvisioningService;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Concurrent lookups of the same rota share a single Couchbase round trip, and the near cache write stamp
+     * taken when it started.
+     */
+    private final RequestCoalescer<String, RotaNearCache.StampedRota> rotaLookups =
+            new RequestCoalescer<>(id -> this.rotaNearCache.stamped(id, this.rotaDocumentRepo::findById));
 
+    /**
+     * How many rotas of a bulk request are written to Couchbase at the same time.
+     */
+    @Value("${rota.bulk.parallelism:32}")
+    private int bulkParallelism;
+
+    /**
+     * How many rotas of a multi-get request are looked up at the same time.
+     */
+    @Value("${rota.lookup.parallelism:32}")
+    private int lookupParallelism;
+
+    /**
+     * How many rotas of a depot listing are read from the index at once.
+     */
+    @Value("${rota.query.pageSize:500}")
+    private int queryPageSize;
+
+    @PostConstruct
+    void registerMetrics() {
+        FunctionCounter.builder("rota.lookups", rotaLookups, RequestCoalescer::hitCount)
+                .tag("coalesced", "true")
+                .description("Rota lookups, which joined an in-flight lookup of the same id")
+                .register(meterRegistry);
+        FunctionCounter.builder("rota.lookups", rotaLookups, RequestCoalescer::missCount)
+                .tag("coalesced", "false")
+                .description("Rota lookups, which went to Couchbase")
+                .register(meterRegistry);
+        Gauge.builder("rota.lookups.coalescing.ratio", rotaLookups, RequestCoalescer::hitRatio)
+                .description("Share of rota lookups served by an in-flight lookup of the same id")
+                .register(meterRegistry);
+        Gauge.builder("rota.lookups.in.flight", rotaLookups, RequestCoalescer::inFlightCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Provisions the rota keyspace in background, so that the first writes don't have to wait for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void provisionKeyspace() {
+        keyspaceProvisioningService.ensureProvisioned(rotaDocumentRepo.keyspace()).subscribe();
+    }
 
     public Mono<Rota> findRotaById(String rotaId) {
-        return rotaRepo.findById(rotaId);
+        return rotaNearCache.get(rotaId, rotaLookups::load);
+    }
+
+    /**
+     * Looks up several rotas in parallel. Unknown ids are skipped.
+     *
+     * @param rotaIds ids of rotas to find
+     * @return found rotas, in order of completion
+     */
+    public Flux<Rota> findRotasByIds(Collection<String> rotaIds) {
+        return Flux.fromIterable(rotaIds)
+                .distinct()
+                .flatMap(this::findRotaById, lookupParallelism);
+    }
+
+    /**
+     * Lists rotas of a depot page by page, as they are consumed: the next page is read from the index only once
+     * the rotas of the current one were requested, so at most two pages are held, however many rotas there are.
+     *
+     * @param depot         depot of the rotas
+     * @param financialYear financial year of the rotas, null for all years
+     * @param weekNumber    week number of the rotas, null for all weeks
+     * @return rotas ordered by financial year, week number and id
+     */
+    public Flux<Rota> findRotasByDepot(String depot, Integer financialYear, Integer weekNumber) {
+        return rotaDocumentRepo.findPage(depot, financialYear, weekNumber, null, queryPageSize)
+                .expand(page -> page.size() < queryPageSize ? Mono.<List<RotaPosition>>empty()
+                        : rotaDocumentRepo.findPage(depot, financialYear, weekNumber, page.get(page.size() - 1),
+                                queryPageSize))
+                .concatMap(page -> Flux.fromIterable(page)
+                        .flatMapSequential(position -> findRotaById(position.getId()), lookupParallelism), 1);
     }
 
     public Mono<Rota> save(Rota rota) {
-        createBucketService.createBucket();
-        return rotaRepo.save(rota);
+        return keyspaceProvisioningService.ensureProvisioned(rotaDocumentRepo.keyspace())
+                .then(rotaDocumentRepo.upsert(rota))
+                .doOnNext(cas -> rotaNearCache.put(rota, cas))
+                .thenReturn(rota);
+    }
+
+    /**
+     * Changes fields of a rota with a single sub-document mutation.
+     *
+     * @param rotaId id of the rota to change
+     * @param patch  fields to change
+     * @param cas    expected CAS of the rota document, 0 to change it regardless of its CAS
+     * @return CAS of the changed document, or empty if there is no such rota
+     */
+    public Mono<Long> patch(String rotaId, RotaPatch patch, long cas) {
+        Map<String, Object> changes = patch.changes();
+        if (changes.isEmpty()) {
+            return rotaDocumentRepo.findById(rotaId).map(VersionedRota::getCas);
+        }
+        return rotaDocumentRepo.patch(rotaId, changes, cas)
+                .doOnNext(newCas -> rotaNearCache.invalidate(rotaId));
+    }
+
+    /**
+     * Decodes, validates and saves rotas as they arrive. At most {@link #bulkParallelism} writes are in flight, so
+     * the incoming stream is consumed no faster than Couchbase accepts documents. Every line is decoded on its own:
+     * a malformed line gets an error result and the following lines are still saved.
+     *
+     * @param lines stream of JSON rotas, one per line, blank lines are skipped
+     * @return result per rota, in order of completion
+     */
+    public Flux<BulkSaveResult> saveAll(Flux<String> lines) {
+        return keyspaceProvisioningService.ensureProvisioned(rotaDocumentRepo.keyspace())
+                .thenMany(lines.filter(line -> !line.isBlank()).index())
+                .flatMap(indexed -> saveLine(indexed.getT1(), indexed.getT2()), bulkParallelism);
+    }
+
+    private Mono<BulkSaveResult> saveLine(long index, String line) {
+        Rota rota;
+        try {
+            rota = objectMapper.readValue(line, Rota.class);
+        } catch (JsonProcessingException e) {
+            return Mono.just(BulkSaveResult.error(index, null, "malformed rota: " + e.getOriginalMessage()));
+        }
+        return saveOne(index, rota);
+    }
+
+    private Mono<BulkSaveResult> saveOne(long index, Rota rota) {
+        Set<ConstraintViolation<Rota>> violations = validator.validate(rota);
+        if (!violations.isEmpty()) {
+            return Mono.just(BulkSaveResult.error(index, rota.getId(), violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "))));
+        }
+        return rotaDocumentRepo.upsert(rota)
+                .doOnNext(cas -> rotaNearCache.invalidate(rota.getId()))
+                .map(cas -> BulkSaveResult.ok(index, rota.getId()))
+                .onErrorResume(e -> {
+                    log.warn("Failed to save rota {} of bulk request", rota.getId(), e);
+                    return Mono.just(BulkSaveResult.error(index, rota.getId(), e.getMessage()));
+                });
     }
 
 }
@@ -0,0 +1,14 @@
+package com.liquibase.application.domain;
+
+import lombok.Value;
+
+/**
+ * Rota together with the CAS of the document it was read from or written to.
+ */
+@Value
+public class VersionedRota {
+
+    Rota rota;
+
+    long cas;
+}
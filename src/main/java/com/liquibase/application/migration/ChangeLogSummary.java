@@ -0,0 +1,120 @@
+package com.liquibase.application.migration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.java.Collection;
+import com.couchbase.client.java.json.JsonObject;
+import liquibase.resource.Resource;
+import liquibase.resource.ResourceAccessor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Summary of the last successfully applied changelog, stored as a document next to the application data.
+ * <p>
+ * The summary holds a SHA-256 hash over paths and contents of all changelog resources: every file under
+ * the top level directory of the changelog, so data files loaded by changesets are covered too. If the hash
+ * of the resources on the classpath equals the stored one, the changelog was applied already and doesn't have
+ * to be parsed and compared with the change log history again. Contexts are part of the hash, as they decide which
+ * changesets are applied.
+ */
+@Slf4j
+public class ChangeLogSummary {
+    private static final String SUMMARY_PREFIX = "_liquibase::changeLogSummary::";
+    private static final String HASH = "hash";
+
+    private final Collection summaries;
+
+    public ChangeLogSummary(Collection summaries) {
+        this.summaries = summaries;
+    }
+
+    /**
+     * Hashes the changelog and all resources next to it.
+     *
+     * @param resourceAccessor accessor of changelog resources
+     * @param changeLogPath    classpath path of the root changelog, e.g. <code>db/changelog/master.xml</code>
+     * @param contexts         contexts the changelog is applied with, null or blank for all
+     * @return hex encoded hash
+     * @throws IOException if resources can't be read
+     */
+    public String hash(ResourceAccessor resourceAccessor, String changeLogPath, String contexts)
+            throws IOException {
+        int rootEnd = changeLogPath.indexOf('/');
+        String root = rootEnd < 0 ? changeLogPath : changeLogPath.substring(0, rootEnd);
+        Map<String, Resource> resources = new LinkedHashMap<>();
+        List<Resource> found = rootEnd < 0 ? List.of(resourceAccessor.getExisting(root))
+                : resourceAccessor.search(root, true);
+        found.stream()
+                .sorted(Comparator.comparing(Resource::getPath))
+                .forEach(resource -> resources.putIfAbsent(resource.getPath(), resource));
+
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[8192];
+        for (Resource resource : resources.values()) {
+            digest.update(resource.getPath().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (InputStream in = new DigestInputStream(resource.openInputStream(), digest)) {
+                while (in.read(buffer) >= 0) {
+                    // digested while reading
+                }
+            }
+            digest.update((byte) 0);
+        }
+        if (contexts != null && !contexts.isBlank()) {
+            digest.update(contexts.trim().getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @param changeLog root changelog
+     * @param hash      current hash of the changelog
+     * @return true if the changelog with this hash was fully applied before, false if not or if unknown
+     */
+    public boolean isApplied(String changeLog, String hash) {
+        try {
+            return hash.equals(summaries.get(SUMMARY_PREFIX + changeLog).contentAsObject().getString(HASH));
+        } catch (DocumentNotFoundException e) {
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("Failed to read the summary of {}, checking the changelog fully", changeLog, e);
+            return false;
+        }
+    }
+
+    /**
+     * Stores the hash of a fully applied changelog.
+     *
+     * @param changeLog root changelog
+     * @param hash      hash of the applied changelog
+     */
+    public void store(String changeLog, String hash) {
+        try {
+            summaries.upsert(SUMMARY_PREFIX + changeLog, JsonObject.create()
+                    .put(HASH, hash)
+                    .put("appliedAt", Instant.now().toString()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to store the summary of {}, the next start will check the changelog fully", changeLog, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.liquibase.application.migration;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.changelog.visitor.AbstractChangeExecListener;
+import liquibase.database.Database;
+
+/**
+ * Records execution time of every changeset as the <code>liquibase.changeset</code> timer, tagged with the changeset
+ * id and the outcome. A changelog has a bounded number of changesets, so the id is a safe tag.
+ */
+public class ChangeSetTimer extends AbstractChangeExecListener {
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<ChangeSet, Long> starts = new ConcurrentHashMap<>();
+
+    public ChangeSetTimer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void willRun(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database,
+                        ChangeSet.RunStatus runStatus) {
+        starts.put(changeSet, System.nanoTime());
+    }
+
+    @Override
+    public void ran(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database,
+                    ChangeSet.ExecType execType) {
+        record(changeSet, execType.name().toLowerCase());
+    }
+
+    @Override
+    public void runFailed(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database,
+                          Exception exception) {
+        record(changeSet, "failed");
+    }
+
+    private void record(ChangeSet changeSet, String outcome) {
+        Long start = starts.remove(changeSet);
+        if (start == null) {
+            return;
+        }
+        Timer.builder("liquibase.changeset")
+                .description("Execution time of Liquibase changesets")
+                .tag("id", changeSet.getId())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,248 @@
+package com.liquibase.application.migration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.Collection;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.QueryMetrics;
+import com.couchbase.client.java.query.QueryOptions;
+import com.couchbase.client.java.query.ReactiveQueryResult;
+import com.liquibase.application.util.Keyspace;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs an N1QL <code>UPDATE</code> in batches instead of a single statement.
+ * <p>
+ * Keys of matching documents are paginated by <code>META().id</code> (keyset pagination, no OFFSET), every page
+ * is updated with <code>USE KEYS</code>, and up to <code>concurrency</code> pages are updated at the same time.
+ * After every page the last updated key is stored as a checkpoint document in the default collection of the bucket,
+ * so a migration, which was interrupted, carries on from where it stopped. The checkpoint is removed once
+ * all pages are updated.
+ * <pre>
+ * &lt;customChange class="com.liquibase.application.migration.ChunkedUpdateChange"
+ *               bucketName="liquibase2" scopeName="travel" collectionName="hotels"
+ *               set="active = false" where="active IS NOT MISSING" batchSize="1000" concurrency="4"/&gt;
+ * </pre>
+ */
+@Slf4j
+@Getter
+@Setter
+public class ChunkedUpdateChange implements CustomTaskChange {
+    private static final String CHECKPOINT_PREFIX = "_liquibase::chunkedUpdate::";
+    private static final String LAST_KEY = "lastKey";
+    private static final String UPDATED = "updated";
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private String bucketName;
+
+    private String scopeName = Keyspace.DEFAULT_SCOPE;
+
+    private String collectionName = Keyspace.DEFAULT_COLLECTION;
+
+    /**
+     * <code>SET</code> clause of the update, without the keyword, e.g. <code>active = false</code>.
+     */
+    private String set;
+
+    /**
+     * <code>UNSET</code> clause of the update, without the keyword.
+     */
+    private String unset;
+
+    /**
+     * Condition of documents to update, without the keyword, e.g. <code>active IS NOT MISSING</code>.
+     */
+    private String where = "TRUE";
+
+    private Integer batchSize = 1000;
+
+    private Integer concurrency = 4;
+
+    /**
+     * Id of the checkpoint, derived from the keyspace and the statement if not set.
+     */
+    private String checkpointId;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long updatedCount;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Keyspace keyspace = Keyspace.of(bucketName, scopeName, collectionName);
+        Cluster cluster = MigrationCluster.get(database);
+        Collection checkpoints = cluster.bucket(bucketName).defaultCollection();
+        String checkpointKey = CHECKPOINT_PREFIX + effectiveCheckpointId(keyspace);
+
+        JsonObject checkpoint = readCheckpoint(checkpoints, checkpointKey);
+        String startKey = checkpoint == null ? "" : checkpoint.getString(LAST_KEY);
+        long alreadyUpdated = checkpoint == null ? 0 : checkpoint.getLong(UPDATED);
+        if (checkpoint != null) {
+            log.info("Resuming update of {} after key '{}', {} documents were updated before", keyspace, startKey,
+                    alreadyUpdated);
+        }
+
+        long start = System.nanoTime();
+        AtomicLong updated = new AtomicLong(alreadyUpdated);
+        AtomicLong lastLogged = new AtomicLong(start);
+        try {
+            Flux.<List<String>, String>generate(() -> startKey, (afterKey, sink) -> {
+                        List<String> keys = nextKeys(cluster, keyspace, afterKey);
+                        if (keys.isEmpty()) {
+                            sink.complete();
+                            return afterKey;
+                        }
+                        sink.next(keys);
+                        return keys.get(keys.size() - 1);
+                    })
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapSequential(keys -> update(cluster, keyspace, keys)
+                            .map(count -> new Batch(keys.get(keys.size() - 1), count)), concurrency)
+                    .concatMap(batch -> {
+                        long total = updated.addAndGet(batch.updated);
+                        return checkpoints.reactive().upsert(checkpointKey, JsonObject.create()
+                                        .put(LAST_KEY, batch.lastKey)
+                                        .put(UPDATED, total)
+                                        .put("checkpointAt", Instant.now().toString()))
+                                .doOnNext(stored -> logProgress(keyspace, total - alreadyUpdated, start, lastLogged));
+                    })
+                    .blockLast();
+        } catch (RuntimeException e) {
+            throw new CustomChangeException("Chunked update of " + keyspace + " failed after " + updated.get()
+                    + " documents, it will be resumed from the last checkpoint", e);
+        }
+
+        try {
+            checkpoints.remove(checkpointKey);
+        } catch (DocumentNotFoundException e) {
+            // nothing matched, so no checkpoint was stored
+        }
+        updatedCount = updated.get();
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        long updatedNow = updatedCount - alreadyUpdated;
+        log.info("Updated {} documents of {} in {} ms ({} rows/s)", updatedNow, keyspace, elapsedMillis,
+                updatedNow * 1000 / elapsedMillis);
+    }
+
+    private List<String> nextKeys(Cluster cluster, Keyspace keyspace, String afterKey) {
+        String statement = "SELECT RAW META(d).id FROM " + keyspace.toN1qlPath() + " AS d"
+                + " WHERE META(d).id > $afterKey AND (" + where + ")" + excludeCheckpoints(keyspace)
+                + " ORDER BY META(d).id LIMIT $limit";
+        return cluster.query(statement, QueryOptions.queryOptions()
+                        .parameters(JsonObject.create().put("afterKey", afterKey).put("limit", batchSize)))
+                .rowsAs(String.class);
+    }
+
+    private Mono<Long> update(Cluster cluster, Keyspace keyspace, List<String> keys) {
+        StringBuilder statement = new StringBuilder("UPDATE ").append(keyspace.toN1qlPath())
+                .append(" AS d USE KEYS $keys");
+        if (set != null) {
+            statement.append(" SET ").append(set);
+        }
+        if (unset != null) {
+            statement.append(" UNSET ").append(unset);
+        }
+        statement.append(" WHERE (").append(where).append(')');
+        return cluster.reactive().query(statement.toString(), QueryOptions.queryOptions()
+                        .parameters(JsonObject.create().put("keys", JsonArray.from(keys)))
+                        .metrics(true))
+                .flatMap(ReactiveQueryResult::metaData)
+                .map(metaData -> metaData.metrics().map(QueryMetrics::mutationCount).orElse(0L));
+    }
+
+    private static String excludeCheckpoints(Keyspace keyspace) {
+        return keyspace.isDefaultCollection() ? " AND META(d).id NOT LIKE \"" + CHECKPOINT_PREFIX + "%\"" : "";
+    }
+
+    private static JsonObject readCheckpoint(Collection checkpoints, String checkpointKey) {
+        try {
+            return checkpoints.get(checkpointKey).contentAsObject();
+        } catch (DocumentNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static void logProgress(Keyspace keyspace, long updated, long start, AtomicLong lastLogged) {
+        long now = System.nanoTime();
+        long last = lastLogged.get();
+        if (now - last >= PROGRESS_LOG_INTERVAL_NANOS && lastLogged.compareAndSet(last, now)) {
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(now - start));
+            log.info("Updated {} documents of {} ({} rows/s)", updated, keyspace, updated * 1000 / elapsedMillis);
+        }
+    }
+
+    private String effectiveCheckpointId(Keyspace keyspace) {
+        if (checkpointId != null) {
+            return checkpointId;
+        }
+        String statement = keyspace + "|" + set + "|" + unset + "|" + where;
+        return UUID.nameUUIDFromBytes(statement.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Updated " + updatedCount + " documents of " + Keyspace.of(bucketName, scopeName, collectionName);
+    }
+
+    @Override
+    public void setUp() throws SetupException {
+        // nothing to set up
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        // no files are used
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        errors.checkRequiredField("bucketName", bucketName);
+        errors.checkRequiredField("scopeName", scopeName);
+        errors.checkRequiredField("collectionName", collectionName);
+        errors.checkRequiredField("where", where);
+        if (set == null && unset == null) {
+            errors.addError("at least one of set and unset is required");
+        }
+        if (batchSize == null || batchSize < 1) {
+            errors.addError("batchSize must be positive");
+        }
+        if (concurrency == null || concurrency < 1) {
+            errors.addError("concurrency must be positive");
+        }
+        return errors;
+    }
+
+    /**
+     * Updated page of keys.
+     */
+    private static final class Batch {
+        private final String lastKey;
+        private final long updated;
+
+        private Batch(String lastKey, long updated) {
+            this.lastKey = lastKey;
+            this.updated = updated;
+        }
+    }
+}
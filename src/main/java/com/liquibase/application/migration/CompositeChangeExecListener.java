@@ -0,0 +1,49 @@
+package com.liquibase.application.migration;
+
+import java.util.List;
+
+import liquibase.change.Change;
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.changelog.visitor.AbstractChangeExecListener;
+import liquibase.changelog.visitor.ChangeExecListener;
+import liquibase.database.Database;
+
+/**
+ * Passes changeset and change events on to several listeners, Liquibase takes only one.
+ */
+public class CompositeChangeExecListener extends AbstractChangeExecListener {
+    private final List<ChangeExecListener> listeners;
+
+    public CompositeChangeExecListener(ChangeExecListener... listeners) {
+        this.listeners = List.of(listeners);
+    }
+
+    @Override
+    public void willRun(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database,
+                        ChangeSet.RunStatus runStatus) {
+        listeners.forEach(listener -> listener.willRun(changeSet, databaseChangeLog, database, runStatus));
+    }
+
+    @Override
+    public void ran(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database,
+                    ChangeSet.ExecType execType) {
+        listeners.forEach(listener -> listener.ran(changeSet, databaseChangeLog, database, execType));
+    }
+
+    @Override
+    public void willRun(Change change, ChangeSet changeSet, DatabaseChangeLog changeLog, Database database) {
+        listeners.forEach(listener -> listener.willRun(change, changeSet, changeLog, database));
+    }
+
+    @Override
+    public void ran(Change change, ChangeSet changeSet, DatabaseChangeLog changeLog, Database database) {
+        listeners.forEach(listener -> listener.ran(change, changeSet, changeLog, database));
+    }
+
+    @Override
+    public void runFailed(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database,
+                          Exception exception) {
+        listeners.forEach(listener -> listener.runFailed(changeSet, databaseChangeLog, database, exception));
+    }
+}
@@ -0,0 +1,218 @@
+package com.liquibase.application.migration;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.changelog.visitor.ChangeExecListener;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.exception.LiquibaseException;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import liquibase.resource.ResourceAccessor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Applies the Couchbase changelog on application startup.
+ * <p>
+ * Opt-in with <code>spring.liquibase.couchbase.enabled</code>, by default the changelog is applied with the Liquibase
+ * CLI. The <code>couchbase://</code> database and the <code>ext:</code> change types come from the Couchbase
+ * Liquibase extension, which the application depends on.
+ * <p>
+ * Deferred query indexes created during the run are built together once all changesets are applied,
+ * see {@link DeferredIndexBuilder}. With <code>parallelism</code> above 1, changesets of unrelated keyspaces
+ * are applied at the same time, see {@link ParallelChangeSetExecutor}.
+ * <p>
+ * If a {@link ChangeLogSummary} is given and the changelog didn't change since it was last applied,
+ * the changelog isn't parsed and checked against the change log history at all. Time spent on checking
+ * is recorded by the <code>liquibase.migration.check</code> timer, tagged with the path taken.
+ * <p>
+ * Instances, which have to migrate, first take a {@link MigrationLease}. While one of them migrates,
+ * the others wait for the lease and skip the migration as soon as the summary shows it's done.
+ * <p>
+ * Only changesets matching <code>contexts</code> are applied, changesets without a context always are.
+ * <p>
+ * In <code>async</code> mode the migration runs on a background thread and application startup goes on,
+ * progress is tracked in {@link MigrationState}, which readiness checks are based on.
+ */
+@Slf4j
+@Builder
+public class CouchbaseMigrationRunner implements InitializingBean {
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    private final String changeLog;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final DeferredIndexBuilder deferredIndexBuilder;
+
+    /**
+     * Maximum number of changesets applied at the same time, 1 or less applies them one by one.
+     */
+    private final int parallelism;
+
+    /**
+     * Comma separated Liquibase contexts, null or blank to apply all changesets.
+     */
+    private final String contexts;
+
+    /**
+     * Summary of the last applied changelog, null to always check the changelog fully.
+     */
+    private final ChangeLogSummary changeLogSummary;
+
+    /**
+     * Lease letting only one of the instances starting together migrate, null to rely on the Liquibase lock only.
+     */
+    private final MigrationLease migrationLease;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Whether to migrate in the background instead of blocking application startup.
+     */
+    private final boolean async;
+
+    @Getter
+    @Builder.Default
+    private final MigrationState migrationState = new MigrationState();
+
+    @Override
+    public void afterPropertiesSet() throws LiquibaseException {
+        if (!async) {
+            migrate();
+            return;
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "liquibase-migration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(() -> {
+            try {
+                migrate();
+            } catch (LiquibaseException | RuntimeException e) {
+                log.error("Migration of {} failed, the application stays out of service", changeLog, e);
+            }
+        });
+        executor.shutdown();
+    }
+
+    /**
+     * Applies all changesets, which weren't applied yet.
+     *
+     * @throws LiquibaseException if the changelog can't be applied
+     */
+    public void migrate() throws LiquibaseException {
+        migrationState.started();
+        try {
+            migrateOnce();
+            migrationState.completed();
+        } catch (LiquibaseException | RuntimeException e) {
+            migrationState.failed(e);
+            throw e;
+        }
+    }
+
+    private void migrateOnce() throws LiquibaseException {
+        long start = System.nanoTime();
+        ResourceAccessor resourceAccessor = new ClassLoaderResourceAccessor();
+        String hash = changeLogHash(resourceAccessor);
+        if (isApplied(hash)) {
+            skip(start);
+            return;
+        }
+        if (migrationLease == null) {
+            update(resourceAccessor, hash, start);
+            return;
+        }
+        try (MigrationLease.Lease lease = migrationLease.acquire(changeLogPath(), () -> isApplied(hash))) {
+            if (lease == null || isApplied(hash)) {
+                skip(start);
+                return;
+            }
+            update(resourceAccessor, hash, start);
+        }
+    }
+
+    private void update(ResourceAccessor resourceAccessor, String hash, long start) throws LiquibaseException {
+        DeferredIndexCollector deferredIndexes = new DeferredIndexCollector();
+        Database database = openDatabase(resourceAccessor);
+        try (Liquibase liquibase = new Liquibase(changeLogPath(), resourceAccessor, database)) {
+            ChangeExecListener listener = listener(deferredIndexes);
+            if (parallelism > 1) {
+                new ParallelChangeSetExecutor(parallelism, () -> openDatabase(resourceAccessor))
+                        .update(liquibase, new Contexts(contexts), listener);
+            } else {
+                liquibase.setChangeExecListener(listener);
+                liquibase.update(new Contexts(contexts), new LabelExpression());
+            }
+        }
+        recordCheck("full", start);
+        deferredIndexBuilder.build(deferredIndexes.getDeferredIndexes());
+        if (hash != null) {
+            changeLogSummary.store(changeLog, hash);
+        }
+        log.info("Migration of {} finished in {} ms", changeLog, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Database openDatabase(ResourceAccessor resourceAccessor) throws LiquibaseException {
+        return DatabaseFactory.getInstance().openDatabase(url, username, password, null, resourceAccessor);
+    }
+
+    private ChangeExecListener listener(DeferredIndexCollector deferredIndexes) {
+        if (meterRegistry == null) {
+            return new CompositeChangeExecListener(deferredIndexes, migrationState);
+        }
+        return new CompositeChangeExecListener(deferredIndexes, migrationState, new ChangeSetTimer(meterRegistry));
+    }
+
+    private boolean isApplied(String hash) {
+        return hash != null && changeLogSummary.isApplied(changeLog, hash);
+    }
+
+    private void skip(long start) {
+        recordCheck("fast", start);
+        log.info("Changelog {} is unchanged since it was last applied, checked in {} ms", changeLog,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private String changeLogHash(ResourceAccessor resourceAccessor) {
+        if (changeLogSummary == null) {
+            return null;
+        }
+        try {
+            return changeLogSummary.hash(resourceAccessor, changeLogPath(), contexts);
+        } catch (IOException e) {
+            log.warn("Failed to hash changelog {}, checking it fully", changeLog, e);
+            return null;
+        }
+    }
+
+    private void recordCheck(String path, long start) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder("liquibase.migration.check")
+                .description("Time spent on checking and applying the changelog on startup")
+                .tag("path", path)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private String changeLogPath() {
+        String path = changeLog;
+        if (path.startsWith(CLASSPATH_PREFIX)) {
+            path = path.substring(CLASSPATH_PREFIX.length());
+        }
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+}
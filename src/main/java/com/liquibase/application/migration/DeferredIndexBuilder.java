@@ -0,0 +1,122 @@
+package com.liquibase.application.migration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.QueryOptions;
+import com.couchbase.client.java.query.QueryScanConsistency;
+import com.liquibase.application.util.Keyspace;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds deferred query indexes.
+ * <p>
+ * Instead of building indexes one by one, a single <code>BUILD INDEX</code> is issued per keyspace for all its
+ * deferred indexes, so that the index service builds them together, and builds of different keyspaces overlap.
+ * Then index states are polled until all of them are online or the wait time runs out.
+ */
+@Slf4j
+public class DeferredIndexBuilder {
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(500);
+    private static final String ONLINE = "online";
+    private static final String INDEX_STATES_QUERY = "SELECT name, state FROM system:indexes"
+            + " WHERE IFMISSING(bucket_id, keyspace_id) = $bucket"
+            + " AND IFMISSING(scope_id, \"_default\") = $scope"
+            + " AND (keyspace_id = $collection OR (bucket_id IS MISSING AND $collection = \"_default\"))"
+            + " AND name IN $names";
+
+    private final Cluster cluster;
+    private final boolean enabled;
+    private final Duration waitTime;
+
+    public DeferredIndexBuilder(Cluster cluster, boolean enabled, Duration waitTime) {
+        this.cluster = cluster;
+        this.enabled = enabled;
+        this.waitTime = waitTime;
+    }
+
+    /**
+     * Builds given deferred indexes and waits for them to become online.
+     *
+     * @param deferredIndexes names of deferred indexes grouped by keyspace
+     * @return true if all indexes are online, false if the wait time ran out before
+     */
+    public boolean build(Map<Keyspace, Set<String>> deferredIndexes) {
+        if (!enabled || deferredIndexes.isEmpty()) {
+            if (!deferredIndexes.isEmpty()) {
+                log.info("Deferred indexes are left to be built manually: {}", deferredIndexes);
+            }
+            return true;
+        }
+
+        long start = System.nanoTime();
+        deferredIndexes.forEach(this::issueBuild);
+
+        Map<Keyspace, Set<String>> pending = deferredIndexes.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> new HashSet<>(entry.getValue())));
+        long deadline = start + waitTime.toNanos();
+        while (!pending.isEmpty()) {
+            pending.entrySet().removeIf(entry -> {
+                Set<String> online = onlineIndexes(entry.getKey(), entry.getValue());
+                online.forEach(index -> log.info("Index {} on {} is online after {} ms", index, entry.getKey(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+                entry.getValue().removeAll(online);
+                return entry.getValue().isEmpty();
+            });
+            if (pending.isEmpty()) {
+                break;
+            }
+            if (System.nanoTime() >= deadline) {
+                log.warn("Indexes are still being built after {} s, not waiting for them anymore: {}",
+                        waitTime.getSeconds(), pending);
+                return false;
+            }
+            sleep();
+        }
+        log.info("All deferred indexes were built in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return true;
+    }
+
+    private void issueBuild(Keyspace keyspace, Set<String> indexes) {
+        String statement = "BUILD INDEX ON " + keyspace.toN1qlPath() + "(" + indexes.stream()
+                .map(index -> "`" + index + "`")
+                .collect(Collectors.joining(", ")) + ")";
+        log.info("Building deferred indexes: {}", statement);
+        cluster.query(statement);
+    }
+
+    private Set<String> onlineIndexes(Keyspace keyspace, Set<String> indexes) {
+        List<String> names = new ArrayList<>(indexes);
+        JsonObject parameters = JsonObject.create()
+                .put("bucket", keyspace.getBucket())
+                .put("scope", keyspace.getScope())
+                .put("collection", keyspace.getCollection())
+                .put("names", JsonArray.from(names));
+        return cluster.query(INDEX_STATES_QUERY, QueryOptions.queryOptions()
+                        .parameters(parameters)
+                        .scanConsistency(QueryScanConsistency.NOT_BOUNDED))
+                .rowsAsObject()
+                .stream()
+                .filter(row -> ONLINE.equals(row.getString("state")))
+                .map(row -> row.getString("name"))
+                .collect(Collectors.toSet());
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for indexes to be built", e);
+        }
+    }
+}
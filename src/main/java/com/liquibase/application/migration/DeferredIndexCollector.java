@@ -0,0 +1,72 @@
+package com.liquibase.application.migration;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.liquibase.application.util.Keyspace;
+import liquibase.change.Change;
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.changelog.visitor.AbstractChangeExecListener;
+import liquibase.database.Database;
+
+/**
+ * Collects query indexes created with <code>deferred=true</code> during a migration run, so that they can be built
+ * together afterwards. Indexes dropped later in the same run are forgotten.
+ * <p>
+ * Changes are inspected through their serializable fields, so any change type using the usual
+ * <code>bucketName</code>, <code>scopeName</code>, <code>collectionName</code>, <code>indexName</code>
+ * and <code>deferred</code> fields is supported.
+ */
+public class DeferredIndexCollector extends AbstractChangeExecListener {
+    private static final String CREATE_QUERY_INDEX = "createQueryIndex";
+    private static final String CREATE_PRIMARY_QUERY_INDEX = "createPrimaryQueryIndex";
+    private static final String DROP_QUERY_INDEX = "dropQueryIndex";
+    private static final String PRIMARY_INDEX_NAME = "#primary";
+
+    private final Map<Keyspace, Set<String>> deferredIndexes = new LinkedHashMap<>();
+
+    @Override
+    public synchronized void ran(Change change, ChangeSet changeSet, DatabaseChangeLog changeLog, Database database) {
+        String changeName = change.getSerializedObjectName();
+        boolean create = CREATE_QUERY_INDEX.equals(changeName) || CREATE_PRIMARY_QUERY_INDEX.equals(changeName);
+        if (!create && !DROP_QUERY_INDEX.equals(changeName)) {
+            return;
+        }
+
+        Keyspace keyspace = Keyspace.of(field(change, "bucketName", null),
+                field(change, "scopeName", Keyspace.DEFAULT_SCOPE),
+                field(change, "collectionName", Keyspace.DEFAULT_COLLECTION));
+        String indexName = field(change, "indexName", PRIMARY_INDEX_NAME);
+        if (keyspace.getBucket() == null) {
+            return;
+        }
+        if (create && Boolean.parseBoolean(field(change, "deferred", "false"))) {
+            deferredIndexes.computeIfAbsent(keyspace, k -> new LinkedHashSet<>()).add(indexName);
+        } else if (!create) {
+            Set<String> indexes = deferredIndexes.get(keyspace);
+            if (indexes != null && indexes.remove(indexName) && indexes.isEmpty()) {
+                deferredIndexes.remove(keyspace);
+            }
+        }
+    }
+
+    /**
+     * @return deferred indexes, which are still there, grouped by keyspace
+     */
+    public synchronized Map<Keyspace, Set<String>> getDeferredIndexes() {
+        Map<Keyspace, Set<String>> copy = new LinkedHashMap<>();
+        deferredIndexes.forEach((keyspace, indexes) -> copy.put(keyspace, new LinkedHashSet<>(indexes)));
+        return copy;
+    }
+
+    private static String field(Change change, String name, String defaultValue) {
+        if (!change.getSerializableFields().contains(name)) {
+            return defaultValue;
+        }
+        Object value = change.getSerializableFieldValue(name);
+        return value == null ? defaultValue : value.toString();
+    }
+}
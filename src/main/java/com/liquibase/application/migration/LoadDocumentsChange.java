@@ -0,0 +1,211 @@
+package com.liquibase.application.migration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.couchbase.client.java.ReactiveCollection;
+import com.couchbase.client.java.codec.RawJsonTranscoder;
+import com.couchbase.client.java.kv.InsertOptions;
+import com.couchbase.client.java.kv.MutationResult;
+import com.couchbase.client.java.kv.UpsertOptions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.liquibase.application.util.Keyspace;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Loads documents from a JSON file into a collection.
+ * <p>
+ * The file may contain either a JSON array of documents or documents separated by new lines (JSON lines).
+ * It is read as a stream, documents are written in batches of <code>batchSize</code>, with at most
+ * <code>concurrency</code> batches in flight, so memory use doesn't depend on the size of the file.
+ * <pre>
+ * &lt;customChange class="com.liquibase.application.migration.LoadDocumentsChange"
+ *               bucketName="liquibase2" scopeName="travel" collectionName="hotels"
+ *               file="db/data/hotels.jsonl" mode="UPSERT"/&gt;
+ * </pre>
+ */
+@Slf4j
+@Getter
+@Setter
+public class LoadDocumentsChange implements CustomTaskChange {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectReader DOCUMENT_READER = OBJECT_MAPPER.readerFor(JsonNode.class);
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private String bucketName;
+
+    private String scopeName = Keyspace.DEFAULT_SCOPE;
+
+    private String collectionName = Keyspace.DEFAULT_COLLECTION;
+
+    /**
+     * Path of the file with documents in the changelog resources.
+     */
+    private String file;
+
+    /**
+     * Document field, which holds the document id.
+     */
+    private String idField = "id";
+
+    /**
+     * INSERT fails on existing documents, UPSERT replaces them.
+     */
+    private String mode = Mode.UPSERT.name();
+
+    private Integer batchSize = 500;
+
+    private Integer concurrency = 8;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ResourceAccessor resourceAccessor;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long loadedCount;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Keyspace keyspace = Keyspace.of(bucketName, scopeName, collectionName);
+        ReactiveCollection collection = MigrationCluster.get(database)
+                .bucket(bucketName)
+                .scope(scopeName)
+                .collection(collectionName)
+                .reactive();
+
+        long start = System.nanoTime();
+        Progress progress = new Progress(keyspace, start);
+        try (InputStream in = resourceAccessor.getExisting(file).openInputStream();
+             MappingIterator<JsonNode> documents = DOCUMENT_READER.readValues(in)) {
+            loadedCount = Flux.fromIterable(() -> documents)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .buffer(batchSize)
+                    .flatMap(batch -> writeBatch(collection, batch), concurrency)
+                    .doOnNext(progress::add)
+                    .reduce(0L, Long::sum)
+                    .block();
+        } catch (IOException | RuntimeException e) {
+            throw new CustomChangeException("Failed to load documents from " + file + " into " + keyspace
+                    + " after " + progress.loaded.get() + " documents", e);
+        }
+
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("Loaded {} documents from {} into {} in {} ms ({} docs/s)", loadedCount, file, keyspace,
+                elapsedMillis, loadedCount * 1000 / elapsedMillis);
+    }
+
+    private Mono<Long> writeBatch(ReactiveCollection collection, List<JsonNode> batch) {
+        Mode writeMode = Mode.valueOf(mode);
+        return Flux.fromIterable(batch)
+                .flatMap(document -> write(collection, writeMode, document), batch.size())
+                .count();
+    }
+
+    private Mono<MutationResult> write(ReactiveCollection collection, Mode writeMode, JsonNode document) {
+        JsonNode id = document.get(idField);
+        if (id == null || !id.isValueNode()) {
+            return Mono.error(new IllegalArgumentException("Document has no '" + idField + "' field: " + document));
+        }
+        byte[] content;
+        try {
+            content = OBJECT_MAPPER.writeValueAsBytes(document);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        if (writeMode == Mode.INSERT) {
+            return collection.insert(id.asText(), content,
+                    InsertOptions.insertOptions().transcoder(RawJsonTranscoder.INSTANCE));
+        }
+        return collection.upsert(id.asText(), content,
+                UpsertOptions.upsertOptions().transcoder(RawJsonTranscoder.INSTANCE));
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Loaded " + loadedCount + " documents from " + file + " into "
+                + Keyspace.of(bucketName, scopeName, collectionName);
+    }
+
+    @Override
+    public void setUp() throws SetupException {
+        // nothing to set up
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        this.resourceAccessor = resourceAccessor;
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        errors.checkRequiredField("bucketName", bucketName);
+        errors.checkRequiredField("scopeName", scopeName);
+        errors.checkRequiredField("collectionName", collectionName);
+        errors.checkRequiredField("file", file);
+        errors.checkRequiredField("idField", idField);
+        if (batchSize == null || batchSize < 1) {
+            errors.addError("batchSize must be positive");
+        }
+        if (concurrency == null || concurrency < 1) {
+            errors.addError("concurrency must be positive");
+        }
+        try {
+            Mode.valueOf(mode);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            errors.addError("mode must be one of INSERT, UPSERT");
+        }
+        return errors;
+    }
+
+    public enum Mode {
+        INSERT,
+        UPSERT
+    }
+
+    /**
+     * Counts loaded documents and logs throughput from time to time.
+     */
+    private static final class Progress {
+        private final Keyspace keyspace;
+        private final long start;
+        private final AtomicLong loaded = new AtomicLong();
+        private final AtomicLong lastLogged;
+
+        private Progress(Keyspace keyspace, long start) {
+            this.keyspace = keyspace;
+            this.start = start;
+            this.lastLogged = new AtomicLong(start);
+        }
+
+        private void add(long count) {
+            long total = loaded.addAndGet(count);
+            long now = System.nanoTime();
+            long last = lastLogged.get();
+            if (now - last >= PROGRESS_LOG_INTERVAL_NANOS && lastLogged.compareAndSet(last, now)) {
+                long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(now - start));
+                log.info("Loaded {} documents into {} ({} docs/s)", total, keyspace, total * 1000 / elapsedMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.liquibase.application.migration;
+
+import com.couchbase.client.java.Cluster;
+import liquibase.database.Database;
+import liquibase.ext.couchbase.database.CouchbaseConnection;
+
+/**
+ * Holder of the Couchbase cluster, which custom changes of our changelogs work with.
+ * Liquibase instantiates changes itself, so the application registers its cluster here on startup.
+ * When the changelog is applied with the Liquibase CLI nothing is registered, and changes use the cluster of
+ * the connection Liquibase opened from <code>liquibase.properties</code>.
+ */
+public final class MigrationCluster {
+    private static volatile Cluster cluster;
+
+    private MigrationCluster() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static void register(Cluster cluster) {
+        MigrationCluster.cluster = cluster;
+    }
+
+    /**
+     * @param database database the change is applied to
+     * @return registered cluster, or the cluster of the Couchbase connection of the database
+     * @throws IllegalStateException if no cluster was registered and the database isn't a Couchbase one
+     */
+    public static Cluster get(Database database) {
+        Cluster registered = cluster;
+        if (registered != null) {
+            return registered;
+        }
+        if (database != null && database.getConnection() instanceof CouchbaseConnection) {
+            return ((CouchbaseConnection) database.getConnection()).getCluster();
+        }
+        throw new IllegalStateException("No Couchbase cluster is registered for migrations and "
+                + (database == null ? "no database" : database.getShortName()) + " isn't a Couchbase database");
+    }
+}
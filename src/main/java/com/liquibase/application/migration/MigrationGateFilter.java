@@ -0,0 +1,45 @@
+package com.liquibase.application.migration;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+/**
+ * Answers requests to gated paths with 503 Service Unavailable until the startup migration completes.
+ */
+public class MigrationGateFilter implements WebFilter {
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final MigrationState migrationState;
+    private final List<PathPattern> gatedPaths;
+
+    public MigrationGateFilter(MigrationState migrationState, List<String> gatedPaths) {
+        this.migrationState = migrationState;
+        this.gatedPaths = gatedPaths.stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (migrationState.isReady()) {
+            return chain.filter(exchange);
+        }
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        if (gatedPaths.stream().noneMatch(pattern -> pattern.matches(path))) {
+            return chain.filter(exchange);
+        }
+        exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return exchange.getResponse().setComplete();
+    }
+}
@@ -0,0 +1,29 @@
+package com.liquibase.application.migration;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Reports the application OUT_OF_SERVICE until the startup migration completes, and DOWN if it failed.
+ * Meant to be part of the readiness health group.
+ */
+public class MigrationHealthIndicator implements HealthIndicator {
+    private final MigrationState migrationState;
+
+    public MigrationHealthIndicator(MigrationState migrationState) {
+        this.migrationState = migrationState;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder;
+        if (migrationState.isReady()) {
+            builder = Health.up();
+        } else if (migrationState.getStatus() == MigrationState.Status.FAILED) {
+            builder = Health.down();
+        } else {
+            builder = Health.outOfService();
+        }
+        return builder.withDetails(migrationState.toMap()).build();
+    }
+}
@@ -0,0 +1,175 @@
+package com.liquibase.application.migration;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import com.couchbase.client.core.error.CasMismatchException;
+import com.couchbase.client.core.error.DocumentExistsException;
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.java.Collection;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.InsertOptions;
+import com.couchbase.client.java.kv.RemoveOptions;
+import com.couchbase.client.java.kv.ReplaceOptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lease guarding a migration, so that only one of many instances starting together applies the changelog.
+ * <p>
+ * The lease is a document with an expiry, created with an insert, so exactly one instance gets it. The holder
+ * renews it with a CAS protected replace every third of the TTL and removes it when done; if the holder crashes,
+ * the document just expires. Other instances poll with a growing back off, and give up waiting as soon as the work
+ * turns out to be done already, e.g. the holder applied the changelog.
+ * <p>
+ * Time spent on waiting is recorded by the <code>liquibase.lock.wait</code> timer, tagged with the outcome,
+ * and every wait for a lease held by another instance counts to <code>liquibase.lock.contention</code>.
+ */
+@Slf4j
+public class MigrationLease {
+    private static final String LEASE_PREFIX = "_liquibase::lease::";
+    private static final long INITIAL_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    private final Collection leases;
+    private final Duration ttl;
+    private final Duration waitTime;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+    private final MeterRegistry meterRegistry;
+    private final Counter contention;
+
+    public MigrationLease(Collection leases, Duration ttl, Duration waitTime, MeterRegistry meterRegistry) {
+        this.leases = leases;
+        this.ttl = ttl;
+        this.waitTime = waitTime;
+        this.meterRegistry = meterRegistry;
+        this.contention = Counter.builder("liquibase.lock.contention")
+                .description("Number of times the migration lease was held by another instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Acquires the lease, waiting for other instances to release it.
+     *
+     * @param name name of the lease
+     * @param done tells if the work guarded by the lease is done already, checked while waiting
+     * @return acquired lease, or null if the work was done while waiting
+     * @throws IllegalStateException if the lease is still held by another instance after the wait time
+     */
+    public Lease acquire(String name, BooleanSupplier done) {
+        String id = LEASE_PREFIX + name;
+        long start = System.nanoTime();
+        long deadline = start + waitTime.toNanos();
+        long backoffMillis = INITIAL_BACKOFF_MILLIS;
+        boolean contended = false;
+        String outcome = "timeout";
+        try {
+            while (true) {
+                try {
+                    long cas = leases.insert(id, content(), InsertOptions.insertOptions().expiry(ttl)).cas();
+                    outcome = "acquired";
+                    log.info("Acquired migration lease {} as {}", name, owner);
+                    return new Lease(id, cas);
+                } catch (DocumentExistsException e) {
+                    if (!contended) {
+                        contended = true;
+                        contention.increment();
+                        log.info("Migration lease {} is held by another instance, waiting", name);
+                    }
+                } catch (RuntimeException e) {
+                    outcome = "unavailable";
+                    log.warn("Failed to acquire migration lease {}, migrating without it", name, e);
+                    return new Lease(null, 0);
+                }
+                if (done.getAsBoolean()) {
+                    outcome = "skipped";
+                    return null;
+                }
+                if (System.nanoTime() >= deadline) {
+                    throw new IllegalStateException("Migration lease " + name + " is still held after " + waitTime);
+                }
+                sleep(backoffMillis + ThreadLocalRandom.current().nextLong(backoffMillis));
+                backoffMillis = Math.min(2 * backoffMillis, MAX_BACKOFF_MILLIS);
+            }
+        } finally {
+            Timer.builder("liquibase.lock.wait")
+                    .description("Time spent on acquiring the migration lease")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private JsonObject content() {
+        return JsonObject.create()
+                .put("owner", owner)
+                .put("renewedAt", Instant.now().toString());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the migration lease", e);
+        }
+    }
+
+    /**
+     * Held lease, renewed in the background until closed.
+     */
+    public final class Lease implements AutoCloseable {
+        private final String id;
+        private final ScheduledExecutorService heartbeat;
+        private long cas;
+
+        private Lease(String id, long cas) {
+            this.id = id;
+            this.cas = cas;
+            if (id == null) {
+                this.heartbeat = null;
+                return;
+            }
+            this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "liquibase-lease-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long periodMillis = Math.max(1, ttl.toMillis() / 3);
+            heartbeat.scheduleAtFixedRate(this::renew, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void renew() {
+            try {
+                cas = leases.replace(id, content(), ReplaceOptions.replaceOptions().cas(cas).expiry(ttl)).cas();
+            } catch (CasMismatchException | DocumentNotFoundException e) {
+                log.error("Migration lease {} was lost, another instance may be migrating too", id);
+                heartbeat.shutdown();
+            } catch (RuntimeException e) {
+                log.warn("Failed to renew migration lease {}, retrying", id, e);
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (id == null) {
+                return;
+            }
+            heartbeat.shutdownNow();
+            try {
+                leases.remove(id, RemoveOptions.removeOptions().cas(cas));
+                log.info("Released migration lease {}", id);
+            } catch (CasMismatchException | DocumentNotFoundException e) {
+                log.warn("Migration lease {} was lost before it was released", id);
+            }
+        }
+    }
+}
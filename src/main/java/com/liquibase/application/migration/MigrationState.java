@@ -0,0 +1,97 @@
+package com.liquibase.application.migration;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.changelog.visitor.AbstractChangeExecListener;
+import liquibase.database.Database;
+
+/**
+ * Progress of the startup migration, fed by {@link CouchbaseMigrationRunner} and, as a change exec listener,
+ * by Liquibase itself. Read by readiness checks and the <code>migrations</code> actuator endpoint.
+ */
+public class MigrationState extends AbstractChangeExecListener {
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        DISABLED
+    }
+
+    private Status status = Status.PENDING;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private int appliedChangeSets;
+    private String currentChangeSet;
+    private String error;
+
+    /**
+     * @return true if requests may be served, i.e. the migration completed or is disabled
+     */
+    public synchronized boolean isReady() {
+        return status == Status.COMPLETED || status == Status.DISABLED;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    public synchronized void disabled() {
+        status = Status.DISABLED;
+    }
+
+    public synchronized void started() {
+        status = Status.RUNNING;
+        startedAt = Instant.now();
+    }
+
+    public synchronized void completed() {
+        status = Status.COMPLETED;
+        finishedAt = Instant.now();
+        currentChangeSet = null;
+    }
+
+    public synchronized void failed(Throwable cause) {
+        status = Status.FAILED;
+        finishedAt = Instant.now();
+        error = String.valueOf(cause.getMessage());
+    }
+
+    @Override
+    public synchronized void willRun(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database,
+                                     ChangeSet.RunStatus runStatus) {
+        currentChangeSet = changeSet.toString(false);
+    }
+
+    @Override
+    public synchronized void ran(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database,
+                                 ChangeSet.ExecType execType) {
+        appliedChangeSets++;
+    }
+
+    /**
+     * @return snapshot of the state
+     */
+    public synchronized Map<String, Object> toMap() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("status", status);
+        details.put("appliedChangeSets", appliedChangeSets);
+        if (currentChangeSet != null) {
+            details.put("currentChangeSet", currentChangeSet);
+        }
+        if (startedAt != null) {
+            details.put("startedAt", startedAt.toString());
+            details.put("elapsedMs", Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now())
+                    .toMillis());
+        }
+        if (error != null) {
+            details.put("error", error);
+        }
+        return details;
+    }
+}
@@ -0,0 +1,23 @@
+package com.liquibase.application.migration;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Actuator endpoint showing progress of the startup migration, <code>/actuator/migrations</code>.
+ */
+@Endpoint(id = "migrations")
+public class MigrationsEndpoint {
+    private final MigrationState migrationState;
+
+    public MigrationsEndpoint(MigrationState migrationState) {
+        this.migrationState = migrationState;
+    }
+
+    @ReadOperation
+    public Map<String, Object> migrations() {
+        return migrationState.toMap();
+    }
+}
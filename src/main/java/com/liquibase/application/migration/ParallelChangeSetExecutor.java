@@ -0,0 +1,359 @@
+package com.liquibase.application.migration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.Scope;
+import liquibase.change.Change;
+import liquibase.change.custom.CustomChangeWrapper;
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.changelog.visitor.ChangeExecListener;
+import liquibase.database.Database;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.LiquibaseException;
+import liquibase.lockservice.LockService;
+import liquibase.lockservice.LockServiceFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies pending changesets of a changelog, running changesets of unrelated keyspaces at the same time.
+ * <p>
+ * Every changeset depends on all earlier changesets, which touch an overlapping keyspace: the same collection,
+ * or the scope or bucket containing it. A changeset with a change, which doesn't name its bucket (e.g. a plain
+ * query), is a barrier: it runs alone, after everything before it and before everything after it. The same holds
+ * for changesets labeled <code>barrier</code>, and a label <code>after:&lt;changeSetId&gt;</code> adds an explicit
+ * dependency on an earlier changeset. So changesets of one keyspace still run in changelog order, and changesets
+ * themselves, with their checksums, are not changed at all.
+ * <p>
+ * Neither Liquibase databases nor changesets are meant to be used by several threads, so every worker thread opens
+ * its own database, and runs changesets in a child of the Liquibase scope of the caller, with its own database in
+ * it. Only the lock is held through the database of the caller, and the change log history is written by one
+ * worker at a time.
+ */
+@Slf4j
+public class ParallelChangeSetExecutor {
+    private static final String AFTER_LABEL_PREFIX = "after:";
+    private static final String BARRIER_LABEL = "barrier";
+
+    /**
+     * Scope values of the caller, which changesets rely on, carried over to the worker threads.
+     */
+    private static final Scope.Attr[] CARRIED_SCOPE_VALUES = {Scope.Attr.logService, Scope.Attr.ui,
+            Scope.Attr.resourceAccessor, Scope.Attr.classLoader, Scope.Attr.quotingStrategy, Scope.Attr.lineSeparator,
+            Scope.Attr.fileEncoding, Scope.Attr.databaseChangeLog};
+
+    private final int parallelism;
+    private final DatabaseOpener databaseOpener;
+
+    /**
+     * @param parallelism    maximum number of changesets applied at the same time
+     * @param databaseOpener opens a database for every worker thread
+     */
+    public ParallelChangeSetExecutor(int parallelism, DatabaseOpener databaseOpener) {
+        this.parallelism = parallelism;
+        this.databaseOpener = databaseOpener;
+    }
+
+    /**
+     * Applies all changesets, which weren't applied yet, holding the Liquibase lock.
+     *
+     * @param liquibase Liquibase with the changelog and the database
+     * @param contexts  contexts to apply changesets of
+     * @param listener  listener of executed changes
+     * @throws LiquibaseException if the changelog can't be applied
+     */
+    public void update(Liquibase liquibase, Contexts contexts, ChangeExecListener listener)
+            throws LiquibaseException {
+        Database database = liquibase.getDatabase();
+        LockService lockService = LockServiceFactory.getInstance().getLockService(database);
+        lockService.waitForLock();
+        try {
+            List<ChangeSet> pending = liquibase.listUnrunChangeSets(contexts, new LabelExpression());
+            if (pending.isEmpty()) {
+                log.info("No changesets to apply");
+                return;
+            }
+            run(plan(pending), liquibase.getDatabaseChangeLog(), listener);
+            database.commit();
+        } finally {
+            lockService.releaseLock();
+        }
+    }
+
+    private static List<Node> plan(List<ChangeSet> changeSets) {
+        List<Node> nodes = new ArrayList<>(changeSets.size());
+        for (ChangeSet changeSet : changeSets) {
+            Node node = new Node(changeSet);
+            for (Node earlier : nodes) {
+                if (node.dependsOn(earlier)) {
+                    node.dependencies.add(earlier);
+                }
+            }
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private void run(List<Node> nodes, DatabaseChangeLog changeLog, ChangeExecListener listener)
+            throws LiquibaseException {
+        WorkerContext context = new WorkerContext(databaseOpener, changeLog, listener);
+        try {
+            run(nodes, context);
+        } finally {
+            context.close();
+        }
+    }
+
+    private void run(List<Node> nodes, WorkerContext context) throws LiquibaseException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "liquibase-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long start = System.nanoTime();
+        try {
+            for (Node node : nodes) {
+                CompletableFuture<?>[] dependencies = node.dependencies.stream()
+                        .map(dependency -> dependency.done)
+                        .toArray(CompletableFuture[]::new);
+                node.done = CompletableFuture.allOf(dependencies)
+                        .thenApplyAsync(ignored -> context.execute(node, failure), workers);
+            }
+            long serialNanos = nodes.stream()
+                    .map(node -> node.done)
+                    .mapToLong(CompletableFuture::join)
+                    .sum();
+            long wallNanos = System.nanoTime() - start;
+            log.info("Applied {} changesets in {} ms with up to {} in parallel, {} ms less than one by one",
+                    nodes.size(), TimeUnit.NANOSECONDS.toMillis(wallNanos), parallelism,
+                    TimeUnit.NANOSECONDS.toMillis(Math.max(0, serialNanos - wallNanos)));
+        } catch (CompletionException | CancellationException e) {
+            CompletableFuture.allOf(nodes.stream().map(node -> node.done).toArray(CompletableFuture[]::new))
+                    .exceptionally(ignored -> null)
+                    .join();
+            Throwable cause = failure.get() != null ? failure.get() : e;
+            if (cause instanceof LiquibaseException) {
+                throw (LiquibaseException) cause;
+            }
+            throw new LiquibaseException("Parallel update failed", cause);
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * Opens a Liquibase database.
+     */
+    @FunctionalInterface
+    public interface DatabaseOpener {
+        Database open() throws LiquibaseException;
+    }
+
+    /**
+     * Databases of the worker threads and what they need to execute changesets.
+     */
+    private static final class WorkerContext {
+        private final DatabaseOpener databaseOpener;
+        private final DatabaseChangeLog changeLog;
+        private final ChangeExecListener listener;
+        private final Map<String, Object> scopeValues = new HashMap<>();
+        private final ConcurrentMap<Thread, Database> databases = new ConcurrentHashMap<>();
+        private final Object historyLock = new Object();
+
+        private WorkerContext(DatabaseOpener databaseOpener, DatabaseChangeLog changeLog,
+                              ChangeExecListener listener) {
+            this.databaseOpener = databaseOpener;
+            this.changeLog = changeLog;
+            this.listener = listener;
+            Scope caller = Scope.getCurrentScope();
+            for (Scope.Attr attr : CARRIED_SCOPE_VALUES) {
+                Object value = caller.get(attr, Object.class);
+                if (value != null) {
+                    scopeValues.put(attr.name(), value);
+                }
+            }
+        }
+
+        /**
+         * Executes a changeset on the database of the current worker thread, and records it in the change log
+         * history.
+         *
+         * @return time spent on the changeset in nanoseconds
+         */
+        private long execute(Node node, AtomicReference<Throwable> failure) {
+            if (failure.get() != null) {
+                throw new CancellationException("Not applying " + node.changeSet + " after an earlier failure");
+            }
+            long start = System.nanoTime();
+            try {
+                Database database = database();
+                Map<String, Object> values = new HashMap<>(scopeValues);
+                values.put(Scope.Attr.database.name(), database);
+                Scope.child(values, () -> execute(node.changeSet, database));
+            } catch (Exception e) {
+                failure.compareAndSet(null, e);
+                throw new CompletionException(e);
+            }
+            long elapsed = System.nanoTime() - start;
+            log.info("Applied {} in {} ms on {}", node.changeSet, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    Thread.currentThread().getName());
+            return elapsed;
+        }
+
+        private void execute(ChangeSet changeSet, Database database) throws LiquibaseException {
+            ChangeSet.RunStatus runStatus = database.getRunStatus(changeSet);
+            if (listener != null) {
+                listener.willRun(changeSet, changeLog, database, runStatus);
+            }
+            ChangeSet.ExecType execType = changeSet.execute(changeLog, listener, database);
+            if (runStatus != ChangeSet.RunStatus.NOT_RAN && execType == ChangeSet.ExecType.EXECUTED) {
+                execType = ChangeSet.ExecType.RERAN;
+            }
+            synchronized (historyLock) {
+                database.markChangeSetExecStatus(changeSet, execType);
+                database.commit();
+            }
+            if (listener != null) {
+                listener.ran(changeSet, changeLog, database, execType);
+            }
+        }
+
+        private Database database() throws LiquibaseException {
+            Database database = databases.get(Thread.currentThread());
+            if (database == null) {
+                database = databaseOpener.open();
+                databases.put(Thread.currentThread(), database);
+            }
+            return database;
+        }
+
+        private void close() {
+            for (Database database : databases.values()) {
+                try {
+                    database.close();
+                } catch (DatabaseException e) {
+                    log.warn("Failed to close database of a worker", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Changeset with the keyspaces it touches and the changesets it has to wait for.
+     */
+    private static final class Node {
+        private final ChangeSet changeSet;
+
+        /**
+         * Touched keyspaces, or null if the changeset has to run alone.
+         */
+        private final Set<Footprint> footprints;
+        private final Set<String> after = new HashSet<>();
+        private final List<Node> dependencies = new ArrayList<>();
+        private CompletableFuture<Long> done;
+
+        private Node(ChangeSet changeSet) {
+            this.changeSet = changeSet;
+            Set<String> labels = changeSet.getLabels() == null ? Set.of() : changeSet.getLabels().getLabels();
+            boolean barrier = false;
+            for (String label : labels) {
+                if (BARRIER_LABEL.equals(label)) {
+                    barrier = true;
+                } else if (label.startsWith(AFTER_LABEL_PREFIX)) {
+                    after.add(label.substring(AFTER_LABEL_PREFIX.length()));
+                }
+            }
+            this.footprints = barrier ? null : footprints(changeSet);
+        }
+
+        private boolean dependsOn(Node earlier) {
+            if (footprints == null || earlier.footprints == null || after.contains(earlier.changeSet.getId())) {
+                return true;
+            }
+            return footprints.stream().anyMatch(footprint -> earlier.footprints.stream().anyMatch(footprint::overlaps));
+        }
+
+        private static Set<Footprint> footprints(ChangeSet changeSet) {
+            Set<Footprint> footprints = new HashSet<>();
+            for (Change change : changeSet.getChanges()) {
+                String bucket = field(change, "bucketName");
+                if (bucket == null) {
+                    return null;
+                }
+                footprints.add(new Footprint(bucket, field(change, "scopeName"), field(change, "collectionName")));
+            }
+            return footprints;
+        }
+
+        private static String field(Change change, String name) {
+            if (change instanceof CustomChangeWrapper) {
+                return ((CustomChangeWrapper) change).getParamValue(name);
+            }
+            if (!change.getSerializableFields().contains(name)) {
+                return null;
+            }
+            Object value = change.getSerializableFieldValue(name);
+            return value == null ? null : value.toString();
+        }
+    }
+
+    /**
+     * Keyspace touched by a change, a missing scope or collection stands for all of them.
+     */
+    private static final class Footprint {
+        private final String bucket;
+        private final String scope;
+        private final String collection;
+
+        private Footprint(String bucket, String scope, String collection) {
+            this.bucket = bucket;
+            this.scope = scope;
+            this.collection = collection;
+        }
+
+        private boolean overlaps(Footprint other) {
+            return bucket.equals(other.bucket)
+                    && (scope == null || other.scope == null || scope.equals(other.scope))
+                    && (collection == null || other.collection == null || collection.equals(other.collection));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Footprint)) {
+                return false;
+            }
+            Footprint other = (Footprint) o;
+            return bucket.equals(other.bucket) && Objects.equals(scope, other.scope)
+                    && Objects.equals(collection, other.collection);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucket, scope, collection);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.liquibase.application.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit, which adapts to observed latency with additive increase and multiplicative decrease (AIMD).
+ * <p>
+ * While calls complete faster than the latency threshold and the limit is actually used, it grows by one per
+ * limit's worth of calls. A call slower than the threshold, or failed, shrinks it by the backoff ratio, unless
+ * it started before the last decrease: a burst of slow calls then shrinks the limit once, not once per call.
+ * So the limit settles around the concurrency, which the backend serves without queueing.
+ */
+public class AimdLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+    private volatile long lastDecreaseNanos;
+
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes a slot if the limit isn't reached.
+     *
+     * @return true if the call may go on and has to {@link #release} the slot, false if it has to be rejected
+     */
+    public boolean tryAcquire() {
+        int limitNow = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limitNow) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot and adapts the limit to the outcome of the call.
+     *
+     * @param startNanos {@link System#nanoTime()} when the call started
+     * @param failed     whether the call failed, e.g. timed out
+     */
+    public void release(long startNanos, boolean failed) {
+        long now = System.nanoTime();
+        int inFlightBefore = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (failed || now - startNanos > latencyThresholdNanos) {
+                if (startNanos - lastDecreaseNanos >= 0) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseNanos = now;
+                }
+            } else if (2 * inFlightBefore >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,229 @@
+package com.liquibase.application.util;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Hand-written parsers and writers for the fixed date and time formats we store and exchange:
+ * {@link DateTimeUtil#YYYY_MM_DD}, {@link DateTimeUtil#HH_MM} and ISO {@link LocalTime}.
+ * <p>
+ * Unlike {@link DateTimeFormatter} based parsing, these don't build a formatter or a parse context per value,
+ * and validate strictly: fixed field widths, no padding, no lenient resolution of invalid days.
+ */
+public final class DateTimeCodecs {
+    private static final int LOCAL_DATE_LENGTH = 10;
+
+    private static final int HOUR_MINUTE_LENGTH = 5;
+
+    private static final int HOUR_MINUTE_SECOND_LENGTH = 8;
+
+    private static final int MAX_FRACTION_DIGITS = 9;
+
+    private static final int MAX_FOUR_DIGIT_YEAR = 9999;
+
+    private static final int NANOS_IN_MILLI = 1_000_000;
+
+    private static final int NANOS_IN_MICRO = 1_000;
+
+    /**
+     * Hour-minute text, which the smart resolver of {@link DateTimeFormatter} turns into midnight.
+     */
+    private static final String END_OF_DAY = "24:00";
+
+    /**
+     * Fallback for years, which don't fit into 4 digits.
+     */
+    private static final DateTimeFormatter YYYY_MM_DD_FORMATTER = DateTimeFormatter.ofPattern(DateTimeUtil.YYYY_MM_DD);
+
+    private DateTimeCodecs() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Parses a date in {@link DateTimeUtil#YYYY_MM_DD} format.
+     *
+     * @param text text to parse
+     * @return parsed date
+     * @throws DateTimeParseException if the text is not a valid date in the expected format
+     */
+    public static LocalDate parseLocalDate(CharSequence text) {
+        if (text.length() != LOCAL_DATE_LENGTH || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            throw parseError(DateTimeUtil.YYYY_MM_DD, text);
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            throw parseError(DateTimeUtil.YYYY_MM_DD, text);
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Writes a date in {@link DateTimeUtil#YYYY_MM_DD} format.
+     *
+     * @param date date to write
+     * @return text representation of the date
+     */
+    public static String formatLocalDate(LocalDate date) {
+        int year = date.getYear();
+        if (year < 0 || year > MAX_FOUR_DIGIT_YEAR) {
+            return date.format(YYYY_MM_DD_FORMATTER);
+        }
+        char[] chars = new char[LOCAL_DATE_LENGTH];
+        writeDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        writeDigits(chars, 5, date.getMonthValue(), 2);
+        chars[7] = '-';
+        writeDigits(chars, 8, date.getDayOfMonth(), 2);
+        return new String(chars);
+    }
+
+    /**
+     * Parses a time in {@link DateTimeUtil#HH_MM} format.
+     * As with the formatter of this pattern, <code>24:00</code> is accepted as midnight.
+     *
+     * @param text text to parse
+     * @return parsed time
+     * @throws DateTimeParseException if the text is not a valid time in the expected format
+     */
+    public static LocalTime parseHourMinute(CharSequence text) {
+        if (text.length() != HOUR_MINUTE_LENGTH) {
+            throw parseError(DateTimeUtil.HH_MM, text);
+        }
+        if (END_OF_DAY.contentEquals(text)) {
+            return LocalTime.MIDNIGHT;
+        }
+        return parseTime(text, DateTimeUtil.HH_MM);
+    }
+
+    /**
+     * Writes a time in {@link DateTimeUtil#HH_MM} format, seconds and fractions are omitted.
+     *
+     * @param time time to write
+     * @return text representation of the time
+     */
+    public static String formatHourMinute(LocalTime time) {
+        char[] chars = new char[HOUR_MINUTE_LENGTH];
+        writeDigits(chars, 0, time.getHour(), 2);
+        chars[2] = ':';
+        writeDigits(chars, 3, time.getMinute(), 2);
+        return new String(chars);
+    }
+
+    /**
+     * Parses a time in ISO format, as {@link LocalTime#parse(CharSequence)} does:
+     * <code>HH:mm</code>, <code>HH:mm:ss</code> or <code>HH:mm:ss.n</code> with up to 9 fraction digits.
+     *
+     * @param text text to parse
+     * @return parsed time
+     * @throws DateTimeParseException if the text is not a valid ISO time
+     */
+    public static LocalTime parseIsoLocalTime(CharSequence text) {
+        return parseTime(text, "ISO local time");
+    }
+
+    /**
+     * Writes a time in ISO format. The output is identical to {@link LocalTime#toString()}.
+     *
+     * @param time time to write
+     * @return text representation of the time
+     */
+    public static String formatIsoLocalTime(LocalTime time) {
+        int second = time.getSecond();
+        int nano = time.getNano();
+        if (second == 0 && nano == 0) {
+            return formatHourMinute(time);
+        }
+
+        char[] chars = new char[HOUR_MINUTE_SECOND_LENGTH + 1 + MAX_FRACTION_DIGITS];
+        writeDigits(chars, 0, time.getHour(), 2);
+        chars[2] = ':';
+        writeDigits(chars, 3, time.getMinute(), 2);
+        chars[5] = ':';
+        writeDigits(chars, 6, second, 2);
+        int length = HOUR_MINUTE_SECOND_LENGTH;
+        if (nano > 0) {
+            chars[length++] = '.';
+            if (nano % NANOS_IN_MILLI == 0) {
+                writeDigits(chars, length, nano / NANOS_IN_MILLI, 3);
+                length += 3;
+            } else if (nano % NANOS_IN_MICRO == 0) {
+                writeDigits(chars, length, nano / NANOS_IN_MICRO, 6);
+                length += 6;
+            } else {
+                writeDigits(chars, length, nano, MAX_FRACTION_DIGITS);
+                length += MAX_FRACTION_DIGITS;
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    private static LocalTime parseTime(CharSequence text, String format) {
+        int length = text.length();
+        if (length != HOUR_MINUTE_LENGTH && length < HOUR_MINUTE_SECOND_LENGTH
+                || length > HOUR_MINUTE_SECOND_LENGTH + 1 + MAX_FRACTION_DIGITS
+                || text.charAt(2) != ':') {
+            throw parseError(format, text);
+        }
+        int hour = digits(text, 0, 2);
+        int minute = digits(text, 3, 2);
+        int second = 0;
+        int nano = 0;
+        if (length > HOUR_MINUTE_LENGTH) {
+            if (text.charAt(5) != ':') {
+                throw parseError(format, text);
+            }
+            second = digits(text, 6, 2);
+            if (length > HOUR_MINUTE_SECOND_LENGTH) {
+                if (text.charAt(HOUR_MINUTE_SECOND_LENGTH) != '.') {
+                    throw parseError(format, text);
+                }
+                int fractionDigits = length - HOUR_MINUTE_SECOND_LENGTH - 1;
+                nano = digits(text, HOUR_MINUTE_SECOND_LENGTH + 1, fractionDigits);
+                for (int i = fractionDigits; i < MAX_FRACTION_DIGITS && nano >= 0; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || nano < 0) {
+            throw parseError(format, text);
+        }
+        return LocalTime.of(hour, minute, second, nano);
+    }
+
+    /**
+     * Reads a non-negative decimal number of fixed width.
+     *
+     * @return parsed number or -1 if there is a non-digit character
+     */
+    private static int digits(CharSequence text, int offset, int width) {
+        int value = 0;
+        for (int i = offset; i < offset + width; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Writes a non-negative decimal number of fixed width, padded with leading zeros.
+     */
+    private static void writeDigits(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static DateTimeParseException parseError(String format, CharSequence text) {
+        return new DateTimeParseException("Text '" + text + "' could not be parsed as " + format, text, 0);
+    }
+}
@@ -8,13 +8,11 @@ import java.time.LocalTime;
 import java.time.Month;
 import java.time.Period;
 import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
-import java.util.List;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import lombok.AllArgsConstructor;
@@ -69,7 +67,36 @@ public class DateTimeUtil {
             throw new IllegalArgumentException("from can't be later than to");
         }
 
-        return Stream.iterate(from, to::isAfter, date -> date.plusDays(1));
+        return Stream.iterate(from, date -> !date.isAfter(to), date -> date.plusDays(1));
+    }
+
+    /**
+     * Generator of days (in form of epoch days) between given two (both ends inclusive).
+     * Unlike {@link #allDaysBetween(LocalDate, LocalDate)} it doesn't create a {@link LocalDate} per day.
+     *
+     * @param from first day
+     * @param to   last day
+     * @return stream of epoch days between given two
+     */
+    public static LongStream allEpochDaysBetween(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from can't be later than to");
+        }
+
+        return LongStream.rangeClosed(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * Generator of start dates (in form of epoch days) of all Tesco weeks, which overlap with the given period.
+     *
+     * @param from first day of the period
+     * @param to   last day of the period
+     * @return stream of epoch days of Tesco week start dates
+     */
+    public static LongStream allTescoWeekStartsBetween(LocalDate from, LocalDate to) {
+        long last = to.toEpochDay();
+        return LongStream.iterate(TescoFiscalCalendar.weekStart(from.toEpochDay()), day -> day <= last,
+                day -> day + DAYS_IN_WEEK);
     }
 
     /**
@@ -125,7 +152,7 @@ public class DateTimeUtil {
      * @return start date of the specified week
      */
     public static LocalDate getStartDateOfTescoWeek(int year, int tescoWeekNumber) {
-        return getStartDateOfFirstTescoWeek(year).plusWeeks((long) tescoWeekNumber - 1);
+        return LocalDate.ofEpochDay(TescoFiscalCalendar.weekStart(year, tescoWeekNumber));
     }
 
     /**
@@ -136,16 +163,11 @@ public class DateTimeUtil {
      * @throws IllegalArgumentException if the provided date is not a start date of a Tesco week
      */
     public static int getTescoWeekByStartDate(LocalDate startDate) {
-        LocalDate startDateOfFirstWeek = getStartDateOfFirstTescoWeek(startDate.getYear());
-        if (startDateOfFirstWeek.isAfter(startDate)) {
-            startDateOfFirstWeek = getStartDateOfFirstTescoWeek(startDate.getYear() - 1);
-        }
-
-        int weeksBetween = (int) Math.abs(ChronoUnit.WEEKS.between(startDate, startDateOfFirstWeek));
-        if (!startDateOfFirstWeek.plusWeeks(weeksBetween).equals(startDate)) {
+        long epochDay = startDate.toEpochDay();
+        if (!TescoFiscalCalendar.isWeekStart(epochDay)) {
             throw new IllegalArgumentException("Provided date is not a start date of Tesco week in the specified year");
         }
-        return weeksBetween + 1;
+        return TescoFiscalCalendar.weekNumber(epochDay);
     }
 
     /**
@@ -155,23 +177,7 @@ public class DateTimeUtil {
      * @return Tesco financial week
      */
     public static int getTescoWeekByDayInWeek(LocalDate day) {
-        final LocalDate weekStartDate = day.getDayOfWeek().equals(DayOfWeek.SUNDAY) ? day
-                : day.minusDays(day.getDayOfWeek().getValue());
-        return getTescoWeekByStartDate(weekStartDate);
-    }
-
-    /**
-     * The first Tesco financial week starts with 1 day after the last Saturday in February.
-     *
-     * @param year year of interest
-     * @return start date of the first Tesco financial week
-     */
-    private static LocalDate getStartDateOfFirstTescoWeek(int year) {
-        LocalDate day = LocalDate.of(year, Month.MARCH, 1).minusDays(1);
-        while (!day.getDayOfWeek().equals(DayOfWeek.SATURDAY)) {
-            day = day.minusDays(1);
-        }
-        return day.plusDays(1);
+        return TescoFiscalCalendar.weekNumber(day.toEpochDay());
     }
 
     /**
@@ -191,7 +197,25 @@ public class DateTimeUtil {
     }
 
     /**
-     * Calculates base time and flex based on earliest and latest times.
+     * Calculates the window between earliest and latest times based on base time and flex values, like
+     * {@link #calculateEarliestAndLatestTimes}, but packed into a primitive, with fractions of a second dropped.
+     *
+     * @param baseTime base time
+     * @param flex     flexibility value, null for drivers with fixed time
+     * @return packed {@link ShiftWindow}
+     */
+    public static long shiftWindow(LocalTime baseTime, LocalTime flex) {
+        int baseSecond = baseTime.toSecondOfDay();
+        if (flex == null) {
+            // if flex is null then we need to add 14 minutes to these drivers base start time calculation
+            return ShiftWindow.of(baseSecond, baseSecond + DEFAULT_FLEX.toSecondOfDay());
+        }
+        return ShiftWindow.ofBaseAndFlex(baseSecond, flex.toSecondOfDay());
+    }
+
+    /**
+     * Calculates base time and flex based on earliest and latest times. For a window crossing midnight, or without
+     * fractions of a second, see {@link ShiftWindow#base} and {@link ShiftWindow#flex}.
      *
      * @param earliestTime earliest time
      * @param latestTime   latest time
@@ -203,11 +227,11 @@ public class DateTimeUtil {
     }
 
     public static String toString(LocalDate localDate) {
-        return localDate.format(DateTimeFormatter.ofPattern(YYYY_MM_DD));
+        return DateTimeCodecs.formatLocalDate(localDate);
     }
 
     public static LocalTime parseLocalTime(String text) {
-        return LocalTime.parse(text, DateTimeFormatter.ofPattern(HH_MM));
+        return DateTimeCodecs.parseHourMinute(text);
     }
 
     /**
@@ -243,8 +267,7 @@ public class DateTimeUtil {
      * @return Tesco financial year
      */
     public static Integer getTescoFinancialYear(LocalDate date) {
-        LocalDate startDateOfFirstTescoWeek = getStartDateOfFirstTescoWeek(date.getYear());
-        return date.isAfter(startDateOfFirstTescoWeek.minusDays(1)) ? date.getYear() : date.getYear() - 1;
+        return TescoFiscalCalendar.financialYear(date.toEpochDay());
     }
 
     /**
@@ -299,22 +322,24 @@ public class DateTimeUtil {
 
     /**
      * Transforms dates period into the list of TescoWeek objects, representing Tesco financial year and week.
+     * Weeks are generated lazily on demand, so the period may be arbitrary long.
      *
      * @param startDate start of the period
      * @param endDate   end of the period
      * @return Flux of TescoWeek objects
      */
     public static Flux<TescoWeek> getTescoWeeks(LocalDate startDate, LocalDate endDate) {
-        LocalDate startDateOfStartWeek = DateTimeUtil.getStartDateOfTescoWeek(
-                DateTimeUtil.getTescoFinancialYear(startDate), DateTimeUtil.getTescoWeekByDayInWeek(startDate));
-
-        List<TescoWeek> tescoWeeks = new ArrayList<>();
-        for (LocalDate d = startDateOfStartWeek; d.isBefore(endDate.plusDays(1)); d = d.plusDays(7)) {
-            tescoWeeks.add(new TescoWeek(DateTimeUtil.getTescoFinancialYear(d),
-                    DateTimeUtil.getTescoWeekByStartDate(d)));
-        }
-
-        return Flux.fromIterable(tescoWeeks);
+        long firstWeekStart = TescoFiscalCalendar.weekStart(startDate.toEpochDay());
+        long lastDay = endDate.toEpochDay();
+        return Flux.<TescoWeek, TescoWeekCursor>generate(() -> new TescoWeekCursor(firstWeekStart),
+                (cursor, sink) -> {
+                    if (cursor.weekStart > lastDay) {
+                        sink.complete();
+                    } else {
+                        sink.next(cursor.next());
+                    }
+                    return cursor;
+                });
     }
 
     /**
@@ -330,4 +355,38 @@ public class DateTimeUtil {
 
         private int weekNumber;
     }
+
+    /**
+     * Mutable position in the Tesco calendar, which moves forward week by week without calendar lookups
+     * except for the financial year boundaries.
+     */
+    private static final class TescoWeekCursor {
+
+        private long weekStart;
+
+        private int financialYear;
+
+        private int weekNumber;
+
+        private long nextYearStart;
+
+        private TescoWeekCursor(long weekStart) {
+            this.weekStart = weekStart;
+            this.financialYear = TescoFiscalCalendar.financialYear(weekStart);
+            this.weekNumber = TescoFiscalCalendar.weekNumber(weekStart);
+            this.nextYearStart = TescoFiscalCalendar.firstWeekStart(financialYear + 1);
+        }
+
+        private TescoWeek next() {
+            TescoWeek week = new TescoWeek(financialYear, weekNumber);
+            weekStart += DAYS_IN_WEEK;
+            weekNumber++;
+            if (weekStart == nextYearStart) {
+                financialYear++;
+                weekNumber = 1;
+                nextYearStart = TescoFiscalCalendar.firstWeekStart(financialYear + 1);
+            }
+            return week;
+        }
+    }
 }
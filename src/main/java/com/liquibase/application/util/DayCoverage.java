@@ -0,0 +1,142 @@
+package com.liquibase.application.util;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+/**
+ * Set of days a driver works on, one bit per epoch day counted from a first day.
+ * <p>
+ * Checking a day, or whether a whole period is covered, takes a few word operations instead of a lookup
+ * of {@link LocalDate}s. Days before the first day can't be covered. Not thread safe while being filled, may be
+ * shared between threads once it isn't changed anymore.
+ */
+public final class DayCoverage {
+    private final long firstDay;
+    private final BitSet days = new BitSet();
+
+    /**
+     * @param firstDay epoch day of the earliest day, which may be covered
+     */
+    public DayCoverage(long firstDay) {
+        this.firstDay = firstDay;
+    }
+
+    public long getFirstDay() {
+        return firstDay;
+    }
+
+    /**
+     * Covers a single day.
+     *
+     * @param epochDay day to cover
+     * @return this coverage
+     */
+    public DayCoverage add(long epochDay) {
+        days.set(index(epochDay));
+        return this;
+    }
+
+    /**
+     * Covers all days of a period.
+     *
+     * @param from first day, inclusive
+     * @param to   last day, inclusive
+     * @return this coverage
+     */
+    public DayCoverage addRange(long from, long to) {
+        if (from > to) {
+            throw new IllegalArgumentException("from can't be later than to");
+        }
+        days.set(index(from), index(to) + 1);
+        return this;
+    }
+
+    /**
+     * Covers the same days of every week of a period, e.g. Monday to Friday.
+     *
+     * @param from        first day, inclusive
+     * @param to          last day, inclusive
+     * @param weekdayMask bit <code>n</code> set covers days with <code>DayOfWeek.getValue() == n + 1</code>
+     * @return this coverage
+     */
+    public DayCoverage addWeekly(long from, long to, int weekdayMask) {
+        for (long day = from; day <= to; day++) {
+            // epoch day 0 (1970-01-01) is a Thursday, the fourth day of the week
+            int weekday = Math.floorMod(day + 3, DateTimeUtil.DAYS_IN_WEEK);
+            if ((weekdayMask & (1 << weekday)) != 0) {
+                days.set(index(day));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @param epochDay day of interest
+     * @return true if the day is covered
+     */
+    public boolean covers(long epochDay) {
+        long index = epochDay - firstDay;
+        return index >= 0 && index < Integer.MAX_VALUE && days.get((int) index);
+    }
+
+    /**
+     * @param from first day, inclusive
+     * @param to   last day, inclusive
+     * @return true if every day of the period is covered
+     */
+    public boolean coversAll(long from, long to) {
+        if (from > to) {
+            return true;
+        }
+        return from >= firstDay && days.nextClearBit(index(from)) > index(to);
+    }
+
+    /**
+     * @param from first day, inclusive
+     * @param to   last day, inclusive
+     * @return number of covered days of the period
+     */
+    public int count(long from, long to) {
+        long first = Math.max(from, firstDay);
+        if (first > to) {
+            return 0;
+        }
+        int last = index(to);
+        int count = 0;
+        for (int i = days.nextSetBit(index(first)); i >= 0 && i <= last; i = days.nextSetBit(i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return total number of covered days
+     */
+    public int count() {
+        return days.cardinality();
+    }
+
+    /**
+     * @param other coverage of another driver
+     * @return true if both cover at least one common day
+     */
+    public boolean intersects(DayCoverage other) {
+        if (firstDay == other.firstDay) {
+            return days.intersects(other.days);
+        }
+        for (int i = days.nextSetBit(0); i >= 0; i = days.nextSetBit(i + 1)) {
+            if (other.covers(firstDay + i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int index(long epochDay) {
+        long index = epochDay - firstDay;
+        if (index < 0 || index >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Day " + epochDay + " is out of coverage starting on " + firstDay);
+        }
+        return (int) index;
+    }
+}
@@ -0,0 +1,46 @@
+package com.liquibase.application.util;
+
+import lombok.Value;
+
+/**
+ * Couchbase keyspace: a collection in a scope of a bucket.
+ */
+@Value(staticConstructor = "of")
+public class Keyspace {
+    public static final String DEFAULT_SCOPE = "_default";
+    public static final String DEFAULT_COLLECTION = "_default";
+
+    String bucket;
+
+    String scope;
+
+    String collection;
+
+    /**
+     * @param bucket bucket name
+     * @return default collection of the bucket
+     */
+    public static Keyspace defaultCollection(String bucket) {
+        return of(bucket, DEFAULT_SCOPE, DEFAULT_COLLECTION);
+    }
+
+    public boolean isDefaultScope() {
+        return DEFAULT_SCOPE.equals(scope);
+    }
+
+    public boolean isDefaultCollection() {
+        return isDefaultScope() && DEFAULT_COLLECTION.equals(collection);
+    }
+
+    /**
+     * @return escaped keyspace path to be used in N1QL statements
+     */
+    public String toN1qlPath() {
+        return "`" + bucket + "`.`" + scope + "`.`" + collection + "`";
+    }
+
+    @Override
+    public String toString() {
+        return bucket + "." + scope + "." + collection;
+    }
+}
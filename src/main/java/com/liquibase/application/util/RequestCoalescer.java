@@ -0,0 +1,89 @@
+package com.liquibase.application.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Coalesces concurrent loads of the same key: while a load is in flight, further requests for the key subscribe
+ * to it instead of starting a new one. The load is forgotten as soon as it completes, so no value is kept
+ * for longer than a single round trip.
+ *
+ * @param <K> type of the key
+ * @param <V> type of the loaded value
+ */
+public class RequestCoalescer<K, V> {
+    private final Function<K, Mono<V>> loader;
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public RequestCoalescer(Function<K, Mono<V>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Loads a value, sharing the result with all concurrent loads of the same key.
+     *
+     * @param key key to load
+     * @return shared result of the load
+     */
+    public Mono<V> load(K key) {
+        return Mono.defer(() -> {
+            Mono<V> existing = inFlight.get(key);
+            if (existing == null) {
+                Mono<V> load = sharedLoad(key);
+                existing = inFlight.putIfAbsent(key, load);
+                if (existing == null) {
+                    misses.increment();
+                    return load;
+                }
+            }
+            hits.increment();
+            return existing;
+        });
+    }
+
+    /**
+     * @return how many loads joined an already running one
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return how many loads actually went to the loader
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return share of loads, which joined an already running one, or 0 if nothing was loaded yet
+     */
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return number of keys being loaded right now
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private Mono<V> sharedLoad(K key) {
+        AtomicReference<Mono<V>> self = new AtomicReference<>();
+        Mono<V> load = Mono.defer(() -> loader.apply(key))
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .cache();
+        self.set(load);
+        return load;
+    }
+}
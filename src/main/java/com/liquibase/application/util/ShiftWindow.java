@@ -0,0 +1,122 @@
+package com.liquibase.application.util;
+
+import java.time.LocalTime;
+
+/**
+ * Time window of a shift, packed into a single <code>long</code>.
+ * <p>
+ * A window holds its first and last second of day (both inclusive) in the high and low 32 bits, so windows can be
+ * kept in primitive arrays and compared without creating {@link LocalTime}s. A window, which ends earlier than it
+ * starts, crosses midnight: <code>23:50-00:20</code> is half an hour long. A window of a single second starts and
+ * ends on the same second; a whole day can't be represented.
+ */
+public final class ShiftWindow {
+    public static final int SECONDS_PER_DAY = 86_400;
+
+    private static final long LOW_MASK = 0xFFFF_FFFFL;
+
+    private ShiftWindow() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param startSecond first second of day of the window, wrapped around midnight if out of range
+     * @param endSecond   last second of day of the window, wrapped around midnight if out of range
+     * @return packed window
+     */
+    public static long of(int startSecond, int endSecond) {
+        return ((long) Math.floorMod(startSecond, SECONDS_PER_DAY) << 32) | Math.floorMod(endSecond, SECONDS_PER_DAY);
+    }
+
+    /**
+     * @param start first second of the window, fractions of a second are dropped
+     * @param end   last second of the window, fractions of a second are dropped
+     * @return packed window
+     */
+    public static long of(LocalTime start, LocalTime end) {
+        return of(start.toSecondOfDay(), end.toSecondOfDay());
+    }
+
+    /**
+     * @param baseSecond  second of day in the middle of the window
+     * @param flexSeconds how far the window reaches before and after the base second
+     * @return packed window
+     */
+    public static long ofBaseAndFlex(int baseSecond, int flexSeconds) {
+        return of(baseSecond - flexSeconds, baseSecond + flexSeconds);
+    }
+
+    public static int start(long window) {
+        return (int) (window >>> 32);
+    }
+
+    public static int end(long window) {
+        return (int) (window & LOW_MASK);
+    }
+
+    public static LocalTime startTime(long window) {
+        return LocalTime.ofSecondOfDay(start(window));
+    }
+
+    public static LocalTime endTime(long window) {
+        return LocalTime.ofSecondOfDay(end(window));
+    }
+
+    public static boolean crossesMidnight(long window) {
+        return end(window) < start(window);
+    }
+
+    /**
+     * @return seconds from the start to the end of the window, 0 for a window of a single second
+     */
+    public static int duration(long window) {
+        return Math.floorMod(end(window) - start(window), SECONDS_PER_DAY);
+    }
+
+    /**
+     * @return half of the window duration, rounded down
+     */
+    public static int flex(long window) {
+        return duration(window) / 2;
+    }
+
+    /**
+     * @return second of day in the middle of the window, the later one of two middle seconds
+     */
+    public static int base(long window) {
+        return Math.floorMod(end(window) - flex(window), SECONDS_PER_DAY);
+    }
+
+    /**
+     * @param window packed window
+     * @param second second of day
+     * @return true if the second is within the window
+     */
+    public static boolean contains(long window, int second) {
+        return Math.floorMod(second - start(window), SECONDS_PER_DAY) <= duration(window);
+    }
+
+    /**
+     * @param outer window, which should cover the other one
+     * @param inner window to be covered
+     * @return true if every second of the inner window is within the outer one
+     */
+    public static boolean covers(long outer, long inner) {
+        int offset = Math.floorMod(start(inner) - start(outer), SECONDS_PER_DAY);
+        return offset + duration(inner) <= duration(outer);
+    }
+
+    /**
+     * @return true if the windows have at least one second in common
+     */
+    public static boolean overlaps(long a, long b) {
+        return contains(a, start(b)) || contains(b, start(a));
+    }
+
+    /**
+     * @return window in the form <code>08:00-16:30</code>
+     */
+    public static String toString(long window) {
+        return startTime(window) + "-" + endTime(window);
+    }
+}
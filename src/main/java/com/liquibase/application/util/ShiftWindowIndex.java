@@ -0,0 +1,235 @@
+package com.liquibase.application.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Index of shift windows of the drivers of a depot, answering which drivers cover or overlap a window on a day.
+ * <p>
+ * Every entry is a driver, one of their {@link ShiftWindow}s and the {@link DayCoverage} of days they start that
+ * window on; a driver may have several entries. Windows are kept as segments of the day sorted by start, a window
+ * crossing midnight is split into two, and its morning segment is worked on the day after the window starts. So a
+ * driver working 22:00-06:00 from day D is found in the morning segment on day D + 1, by the coverage of day D.
+ * <p>
+ * Along with the ends of the segments the index keeps the running maximum of the ends, so a query looks only at
+ * segments, which start before the window of interest ends, going back only until no earlier segment can reach it
+ * anymore. Nothing is boxed, drivers are identified by the non-negative int ordinals they were added with.
+ * <p>
+ * The index is immutable and may be queried from many threads; {@link #coveringByDepot(Map, long, long)} evaluates
+ * the indexes of several depots in parallel.
+ */
+public final class ShiftWindowIndex {
+    private static final int LAST_SECOND = ShiftWindow.SECONDS_PER_DAY - 1;
+
+    private final int[] drivers;
+    private final DayCoverage[] coverages;
+    private final int[] segmentStarts;
+    private final int[] segmentEnds;
+    private final int[] maxSegmentEnds;
+    /**
+     * Entry of a segment times two, plus one for the morning segment of a window crossing midnight.
+     */
+    private final int[] segmentParts;
+
+    private ShiftWindowIndex(int[] drivers, long[] windows, DayCoverage[] coverages) {
+        this.drivers = drivers;
+        this.coverages = coverages;
+        int segmentCount = drivers.length;
+        for (long window : windows) {
+            if (ShiftWindow.crossesMidnight(window)) {
+                segmentCount++;
+            }
+        }
+        // segments sorted by start, packed as start in the high bits and entry in the low bits of a long
+        long[] segments = new long[segmentCount];
+        int[] ends = new int[drivers.length * 2];
+        int count = 0;
+        for (int entry = 0; entry < windows.length; entry++) {
+            long window = windows[entry];
+            if (ShiftWindow.crossesMidnight(window)) {
+                segments[count++] = segment(ShiftWindow.start(window), entry * 2);
+                segments[count++] = segment(0, entry * 2 + 1);
+                ends[entry * 2] = LAST_SECOND;
+                ends[entry * 2 + 1] = ShiftWindow.end(window);
+            } else {
+                segments[count++] = segment(ShiftWindow.start(window), entry * 2);
+                ends[entry * 2] = ShiftWindow.end(window);
+            }
+        }
+        Arrays.sort(segments);
+        this.segmentStarts = new int[segmentCount];
+        this.segmentEnds = new int[segmentCount];
+        this.maxSegmentEnds = new int[segmentCount];
+        this.segmentParts = new int[segmentCount];
+        int maxEnd = -1;
+        for (int i = 0; i < segmentCount; i++) {
+            int part = (int) segments[i];
+            segmentStarts[i] = (int) (segments[i] >>> 32);
+            segmentEnds[i] = ends[part];
+            segmentParts[i] = part;
+            maxEnd = Math.max(maxEnd, segmentEnds[i]);
+            maxSegmentEnds[i] = maxEnd;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return number of entries
+     */
+    public int size() {
+        return drivers.length;
+    }
+
+    /**
+     * Finds drivers, who work the whole given window on the given day.
+     *
+     * @param window   packed {@link ShiftWindow}
+     * @param epochDay day the window starts on
+     * @return ordinals of the drivers in ascending order
+     */
+    public int[] covering(long window, long epochDay) {
+        int start = ShiftWindow.start(window);
+        int end = ShiftWindow.end(window);
+        BitSet found = new BitSet();
+        if (!ShiftWindow.crossesMidnight(window)) {
+            collectCovering(start, end, epochDay, found);
+            return found.stream().toArray();
+        }
+        BitSet coveringMorning = new BitSet();
+        collectCovering(start, LAST_SECOND, epochDay, found);
+        collectCovering(0, end, epochDay + 1, coveringMorning);
+        found.and(coveringMorning);
+        return found.stream().toArray();
+    }
+
+    /**
+     * Finds drivers, who work at least a second of the given window on the given day.
+     *
+     * @param window   packed {@link ShiftWindow}
+     * @param epochDay day the window starts on
+     * @return ordinals of the drivers in ascending order
+     */
+    public int[] overlapping(long window, long epochDay) {
+        int start = ShiftWindow.start(window);
+        int end = ShiftWindow.end(window);
+        BitSet found = new BitSet();
+        if (ShiftWindow.crossesMidnight(window)) {
+            collectOverlapping(start, LAST_SECOND, epochDay, found);
+            collectOverlapping(0, end, epochDay + 1, found);
+        } else {
+            collectOverlapping(start, end, epochDay, found);
+        }
+        return found.stream().toArray();
+    }
+
+    /**
+     * Finds drivers covering a window on a day at every given depot, evaluating depots in parallel.
+     *
+     * @param depots   indexes by depot
+     * @param window   packed {@link ShiftWindow}
+     * @param epochDay day the window starts on
+     * @param <K>      depot key
+     * @return ordinals of the covering drivers by depot
+     */
+    public static <K> ConcurrentMap<K, int[]> coveringByDepot(Map<K, ShiftWindowIndex> depots, long window,
+                                                              long epochDay) {
+        return depots.entrySet().parallelStream()
+                .collect(Collectors.toConcurrentMap(Map.Entry::getKey,
+                        depot -> depot.getValue().covering(window, epochDay)));
+    }
+
+    private void collectCovering(int start, int end, long epochDay, BitSet found) {
+        for (int i = upperBound(start) - 1; i >= 0 && maxSegmentEnds[i] >= end; i--) {
+            if (segmentEnds[i] >= end) {
+                collect(segmentParts[i], epochDay, found);
+            }
+        }
+    }
+
+    private void collectOverlapping(int start, int end, long epochDay, BitSet found) {
+        for (int i = upperBound(end) - 1; i >= 0 && maxSegmentEnds[i] >= start; i--) {
+            if (segmentEnds[i] >= start) {
+                collect(segmentParts[i], epochDay, found);
+            }
+        }
+    }
+
+    /**
+     * Collects the driver of a segment worked on the given day, if they start its window on that day, or, for a
+     * morning segment, on the day before.
+     */
+    private void collect(int part, long epochDay, BitSet found) {
+        int entry = part / 2;
+        long startDay = part % 2 == 0 ? epochDay : epochDay - 1;
+        if (coverages[entry].covers(startDay)) {
+            found.set(drivers[entry]);
+        }
+    }
+
+    /**
+     * @return number of segments starting at or before the given second
+     */
+    private int upperBound(int second) {
+        int low = 0;
+        int high = segmentStarts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (segmentStarts[middle] <= second) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long segment(int start, int part) {
+        return ((long) start << 32) | part;
+    }
+
+    /**
+     * Collects entries of a {@link ShiftWindowIndex}.
+     */
+    public static final class Builder {
+        private int[] drivers = new int[16];
+        private long[] windows = new long[16];
+        private DayCoverage[] coverages = new DayCoverage[16];
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * @param driver   non-negative ordinal of the driver
+         * @param window   packed {@link ShiftWindow} the driver works in
+         * @param coverage days the driver starts this window on
+         * @return this builder
+         */
+        public Builder add(int driver, long window, DayCoverage coverage) {
+            if (driver < 0) {
+                throw new IllegalArgumentException("driver ordinal must not be negative");
+            }
+            if (size == drivers.length) {
+                drivers = Arrays.copyOf(drivers, size * 2);
+                windows = Arrays.copyOf(windows, size * 2);
+                coverages = Arrays.copyOf(coverages, size * 2);
+            }
+            drivers[size] = driver;
+            windows[size] = window;
+            coverages[size] = coverage;
+            size++;
+            return this;
+        }
+
+        public ShiftWindowIndex build() {
+            return new ShiftWindowIndex(Arrays.copyOf(drivers, size), Arrays.copyOf(windows, size),
+                    Arrays.copyOf(coverages, size));
+        }
+    }
+}
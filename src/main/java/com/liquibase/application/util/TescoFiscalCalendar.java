@@ -0,0 +1,255 @@
+package com.liquibase.application.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+
+/**
+ * Precomputed Tesco financial calendar.
+ * <p>
+ * Start dates of the first Tesco week of every financial year between {@link #MIN_YEAR} and {@link #MAX_YEAR} are
+ * computed once into a table of epoch days, so finding a financial year, a week number or a week start date is a
+ * constant time operation without any allocation. Years outside of this range are calculated on demand.
+ * <p>
+ * Tesco financial year starts on the Sunday following the last Saturday in February and consists of 52 or 53 weeks.
+ */
+public final class TescoFiscalCalendar {
+    /**
+     * First financial year held in the precomputed table.
+     */
+    public static final int MIN_YEAR = 1900;
+
+    /**
+     * Last financial year held in the precomputed table.
+     */
+    public static final int MAX_YEAR = 2199;
+
+    private static final int DAYS_IN_WEEK = DateTimeUtil.DAYS_IN_WEEK;
+
+    /**
+     * Bits reserved for a week number in a packed (year, week) value.
+     */
+    private static final int WEEK_BITS = 6;
+
+    private static final int WEEK_MASK = (1 << WEEK_BITS) - 1;
+
+    /**
+     * Epoch days of the first Tesco week start, indexed by <code>year - MIN_YEAR</code>.
+     * Holds one extra entry for the year following {@link #MAX_YEAR}, which closes the last year of the range.
+     */
+    private static final long[] FIRST_WEEK_STARTS = new long[MAX_YEAR - MIN_YEAR + 2];
+
+    static {
+        for (int i = 0; i < FIRST_WEEK_STARTS.length; i++) {
+            FIRST_WEEK_STARTS[i] = calculateFirstWeekStart(MIN_YEAR + i);
+        }
+    }
+
+    private static final long FIRST_COVERED_DAY = FIRST_WEEK_STARTS[0];
+
+    private static final long LAST_COVERED_DAY = FIRST_WEEK_STARTS[FIRST_WEEK_STARTS.length - 1] - 1;
+
+    private TescoFiscalCalendar() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Returns epoch day of the start date of the first Tesco week in the given financial year.
+     *
+     * @param year financial year
+     * @return epoch day of the first week start date
+     */
+    public static long firstWeekStart(int year) {
+        if (year >= MIN_YEAR && year <= MAX_YEAR + 1) {
+            return FIRST_WEEK_STARTS[year - MIN_YEAR];
+        }
+        return calculateFirstWeekStart(year);
+    }
+
+    /**
+     * Returns Tesco financial year of the given day.
+     *
+     * @param epochDay day of interest
+     * @return Tesco financial year
+     */
+    public static int financialYear(long epochDay) {
+        if (epochDay < FIRST_COVERED_DAY || epochDay > LAST_COVERED_DAY) {
+            int year = LocalDate.ofEpochDay(epochDay).getYear();
+            return epochDay >= calculateFirstWeekStart(year) ? year : year - 1;
+        }
+        // average Gregorian year is 146097 / 400 days, so the estimate is off by one year at most
+        int index = (int) Math.floorDiv((epochDay - FIRST_COVERED_DAY) * 400, 146097);
+        if (index >= FIRST_WEEK_STARTS.length - 1) {
+            index = FIRST_WEEK_STARTS.length - 2;
+        }
+        if (epochDay < FIRST_WEEK_STARTS[index]) {
+            index--;
+        } else if (epochDay >= FIRST_WEEK_STARTS[index + 1]) {
+            index++;
+        }
+        return MIN_YEAR + index;
+    }
+
+    /**
+     * Returns Tesco financial year of the given date.
+     *
+     * @param date date of interest
+     * @return Tesco financial year
+     */
+    public static int financialYear(LocalDate date) {
+        return financialYear(date.toEpochDay());
+    }
+
+    /**
+     * Returns number of the Tesco week (starting from 1) the given day belongs to.
+     *
+     * @param epochDay day of interest
+     * @return Tesco week number within its financial year
+     */
+    public static int weekNumber(long epochDay) {
+        return (int) ((epochDay - firstWeekStart(financialYear(epochDay))) / DAYS_IN_WEEK) + 1;
+    }
+
+    /**
+     * Returns epoch day of the start date of the Tesco week the given day belongs to.
+     *
+     * @param epochDay day of interest
+     * @return epoch day of the week start date
+     */
+    public static long weekStart(long epochDay) {
+        long firstWeekStart = firstWeekStart(financialYear(epochDay));
+        return epochDay - (epochDay - firstWeekStart) % DAYS_IN_WEEK;
+    }
+
+    /**
+     * Returns epoch day of the start date of the specified Tesco week.
+     *
+     * @param year       financial year
+     * @param weekNumber Tesco week number
+     * @return epoch day of the week start date
+     */
+    public static long weekStart(int year, int weekNumber) {
+        return firstWeekStart(year) + (weekNumber - 1L) * DAYS_IN_WEEK;
+    }
+
+    /**
+     * Checks whether the given day is the first day of a Tesco week.
+     *
+     * @param epochDay day of interest
+     * @return true if the day starts a Tesco week
+     */
+    public static boolean isWeekStart(long epochDay) {
+        return (epochDay - firstWeekStart(financialYear(epochDay))) % DAYS_IN_WEEK == 0;
+    }
+
+    /**
+     * Packs Tesco financial year and week number of the given day into a single int.
+     *
+     * @param epochDay day of interest
+     * @return packed (year, week) value, see {@link #yearOf(int)} and {@link #weekOf(int)}
+     */
+    public static int packedWeek(long epochDay) {
+        int year = financialYear(epochDay);
+        int week = (int) ((epochDay - firstWeekStart(year)) / DAYS_IN_WEEK) + 1;
+        return pack(year, week);
+    }
+
+    /**
+     * Packs Tesco financial year and week number into a single int.
+     *
+     * @param year       financial year
+     * @param weekNumber Tesco week number
+     * @return packed (year, week) value
+     */
+    public static int pack(int year, int weekNumber) {
+        return (year << WEEK_BITS) | weekNumber;
+    }
+
+    /**
+     * @param packedWeek value produced by {@link #pack(int, int)}
+     * @return financial year of the packed value
+     */
+    public static int yearOf(int packedWeek) {
+        return packedWeek >> WEEK_BITS;
+    }
+
+    /**
+     * @param packedWeek value produced by {@link #pack(int, int)}
+     * @return Tesco week number of the packed value
+     */
+    public static int weekOf(int packedWeek) {
+        return packedWeek & WEEK_MASK;
+    }
+
+    /**
+     * Maps every day between given two (both ends inclusive) to its Tesco financial year and week in one pass.
+     * Table lookups are done only when the range crosses a financial year boundary.
+     *
+     * @param from     first day
+     * @param to       last day
+     * @param consumer receives every day with its financial year and week number
+     */
+    public static void forEachDay(LocalDate from, LocalDate to, DayWeekConsumer consumer) {
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        if (first > last) {
+            throw new IllegalArgumentException("from can't be later than to");
+        }
+
+        int year = financialYear(first);
+        long yearStart = firstWeekStart(year);
+        long nextYearStart = firstWeekStart(year + 1);
+        int dayInWeek = (int) ((first - yearStart) % DAYS_IN_WEEK);
+        int week = (int) ((first - yearStart) / DAYS_IN_WEEK) + 1;
+        for (long day = first; day <= last; day++) {
+            if (day == nextYearStart) {
+                year++;
+                yearStart = nextYearStart;
+                nextYearStart = firstWeekStart(year + 1);
+                dayInWeek = 0;
+                week = 1;
+            }
+            consumer.accept(day, year, week);
+            if (++dayInWeek == DAYS_IN_WEEK) {
+                dayInWeek = 0;
+                week++;
+            }
+        }
+    }
+
+    /**
+     * Maps every day between given two (both ends inclusive) to its packed Tesco financial year and week.
+     *
+     * @param from first day
+     * @param to   last day
+     * @return array with a packed (year, week) value per day, see {@link #yearOf(int)} and {@link #weekOf(int)}
+     */
+    public static int[] packedWeeksBetween(LocalDate from, LocalDate to) {
+        int[] result = new int[DateTimeUtil.countAllDaysBetween(from, to)];
+        long first = from.toEpochDay();
+        forEachDay(from, to, (epochDay, year, week) -> result[(int) (epochDay - first)] = pack(year, week));
+        return result;
+    }
+
+    /**
+     * The first Tesco financial week starts with 1 day after the last Saturday in February.
+     *
+     * @param year year of interest
+     * @return epoch day of the first Tesco financial week start date
+     */
+    private static long calculateFirstWeekStart(int year) {
+        LocalDate lastDayOfFebruary = LocalDate.of(year, Month.MARCH, 1).minusDays(1);
+        int daysAfterSaturday = (lastDayOfFebruary.getDayOfWeek().getValue() - DayOfWeek.SATURDAY.getValue()
+                + DAYS_IN_WEEK) % DAYS_IN_WEEK;
+        return lastDayOfFebruary.toEpochDay() - daysAfterSaturday + 1;
+    }
+
+    /**
+     * Receives a day together with its Tesco financial year and week number.
+     */
+    @FunctionalInterface
+    public interface DayWeekConsumer {
+
+        void accept(long epochDay, int financialYear, int weekNumber);
+    }
+}
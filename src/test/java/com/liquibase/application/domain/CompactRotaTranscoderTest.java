@@ -0,0 +1,106 @@
+package com.liquibase.application.domain;
+
+import java.nio.charset.StandardCharsets;
+
+import com.couchbase.client.core.error.DecodingFailureException;
+import com.couchbase.client.core.msg.kv.CodecFlags;
+import com.couchbase.client.java.codec.Transcoder;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactRotaTranscoderTest {
+    private static final CompactRotaTranscoder TRANSCODER = CompactRotaTranscoder.INSTANCE;
+
+    @Test
+    void compactFormatRoundTrips() {
+        Rota rota = rota("Week 12", "DEP1", 2023, 12);
+
+        Transcoder.EncodedValue encoded = TRANSCODER.encode(rota);
+
+        assertThat(text(encoded.encoded()))
+                .isEqualTo("{\"_v\":1,\"n\":\"Week 12\",\"depot\":\"DEP1\",\"financialYear\":2023,\"weekNumber\":12}");
+        assertThat(encoded.flags()).isEqualTo(CodecFlags.JSON_COMPAT_FLAGS);
+        assertThat(TRANSCODER.decode(Rota.class, encoded.encoded(), encoded.flags())).isEqualTo(rota);
+    }
+
+    @Test
+    void verboseFormatRoundTrips() {
+        Rota rota = rota("Week 12", "DEP1", 2023, 12);
+
+        byte[] verbose = TRANSCODER.encodeVerbose(rota);
+
+        assertThat(text(verbose))
+                .isEqualTo("{\"name\":\"Week 12\",\"depot\":\"DEP1\",\"financialYear\":2023,\"weekNumber\":12}");
+        assertThat(TRANSCODER.decode(verbose)).isEqualTo(rota);
+    }
+
+    @Test
+    void springDataDocumentIsDecoded() {
+        Rota rota = TRANSCODER.decode(bytes("{\"name\":\"Week 12\",\"depot\":\"DEP1\",\"financialYear\":2023,"
+                + "\"weekNumber\":12,\"_class\":\"com.liquibase.application.domain.Rota\"}"));
+
+        assertThat(rota).isEqualTo(rota("Week 12", "DEP1", 2023, 12));
+    }
+
+    @Test
+    void nullFieldsAreLeftOut() {
+        Rota rota = new Rota();
+
+        assertThat(text(TRANSCODER.encode(rota).encoded())).isEqualTo("{\"_v\":1}");
+        assertThat(text(TRANSCODER.encodeVerbose(rota))).isEqualTo("{}");
+        assertThat(TRANSCODER.decode(TRANSCODER.encode(rota).encoded())).isEqualTo(rota);
+    }
+
+    @Test
+    void missingAndNullFieldsAreDecodedAsNull() {
+        assertThat(TRANSCODER.decode(bytes("{\"_v\":1}"))).isEqualTo(new Rota());
+        assertThat(TRANSCODER.decode(bytes("{\"n\":null,\"depot\":null,\"financialYear\":null,\"weekNumber\":null}")))
+                .isEqualTo(new Rota());
+    }
+
+    @Test
+    void unknownFieldsAreSkipped() {
+        assertThat(TRANSCODER.decode(bytes("{\"n\":\"Week 12\",\"extra\":{\"nested\":[1,2]},\"weekNumber\":12}")))
+                .isEqualTo(rota("Week 12", null, null, 12));
+    }
+
+    @Test
+    void shortNameWinsOverFullName() {
+        assertThat(TRANSCODER.decode(bytes("{\"name\":\"old\",\"n\":\"new\"}")).getName()).isEqualTo("new");
+        assertThat(TRANSCODER.decode(bytes("{\"n\":\"new\",\"name\":\"old\"}")).getName()).isEqualTo("new");
+        assertThat(TRANSCODER.decode(bytes("{\"n\":null,\"name\":\"old\"}")).getName()).isEqualTo("old");
+    }
+
+    @Test
+    void newerVersionIsRejected() {
+        assertThatThrownBy(() -> TRANSCODER.decode(bytes("{\"_v\":2,\"n\":\"Week 12\"}")))
+                .isInstanceOf(DecodingFailureException.class);
+    }
+
+    @Test
+    void onlyNameIsStoredUnderShortKey() {
+        assertThat(CompactRotaTranscoder.storedField("name")).isEqualTo("n");
+        assertThat(CompactRotaTranscoder.storedField("depot")).isEqualTo("depot");
+        assertThat(CompactRotaTranscoder.storedField("financialYear")).isEqualTo("financialYear");
+        assertThat(CompactRotaTranscoder.storedField("weekNumber")).isEqualTo("weekNumber");
+    }
+
+    private static Rota rota(String name, String depot, Integer financialYear, Integer weekNumber) {
+        Rota rota = new Rota();
+        rota.setName(name);
+        rota.setDepot(depot);
+        rota.setFinancialYear(financialYear);
+        rota.setWeekNumber(weekNumber);
+        return rota;
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] json) {
+        return new String(json, StandardCharsets.UTF_8);
+    }
+}
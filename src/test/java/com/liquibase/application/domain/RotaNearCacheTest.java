@@ -0,0 +1,111 @@
+package com.liquibase.application.domain;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.liquibase.application.util.RequestCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RotaNearCacheTest {
+    private static final String ID = "rota-1";
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void loadedRotaIsCached() {
+        RotaNearCache cache = cache(true);
+
+        assertThat(cache.get(ID, id -> cache.stamped(id, this::load)).block()).isEqualTo(rota("loaded"));
+        assertThat(cache.get(ID, id -> cache.stamped(id, this::load)).block()).isEqualTo(rota("loaded"));
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        RotaNearCache cache = cache(false);
+        cache.put(rota("written"), 1);
+
+        assertThat(cache.get(ID, id -> cache.stamped(id, this::load)).block()).isEqualTo(rota("loaded"));
+        assertThat(cache.get(ID, id -> cache.stamped(id, this::load)).block()).isEqualTo(rota("loaded"));
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void hitsReturnCopies() {
+        RotaNearCache cache = cache(true);
+        Rota written = rota("written");
+        cache.put(written, 1);
+        written.setName("changed after put");
+
+        Rota first = cache.get(ID, id -> cache.stamped(id, this::load)).block();
+        first.setName("changed by caller");
+        Rota second = cache.get(ID, id -> cache.stamped(id, this::load)).block();
+
+        assertThat(second).isEqualTo(rota("written"));
+        assertThat(second).isNotSameAs(first);
+        assertThat(loads.get()).isEqualTo(0);
+    }
+
+    @Test
+    void sharedLoadStartedBeforeInvalidateIsNotCached() {
+        RotaNearCache cache = cache(true);
+        Sinks.One<VersionedRota> stale = Sinks.one();
+        RequestCoalescer<String, RotaNearCache.StampedRota> lookups =
+                new RequestCoalescer<>(id -> cache.stamped(id, key -> stale.asMono()));
+
+        CompletableFuture<Rota> before = cache.get(ID, lookups::load).toFuture();
+        cache.invalidate(ID);
+        CompletableFuture<Rota> joined = cache.get(ID, lookups::load).toFuture();
+        stale.tryEmitValue(new VersionedRota(rota("stale"), 1));
+
+        assertThat(before.join()).isEqualTo(rota("stale"));
+        assertThat(joined.join()).isEqualTo(rota("stale"));
+        assertThat(joined.join()).isNotSameAs(before.join());
+        assertThat(cache.get(ID, id -> cache.stamped(id, this::load)).block()).isEqualTo(rota("loaded"));
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void loadStartedBeforePutDoesNotReplaceWrittenRota() {
+        RotaNearCache cache = cache(true);
+        Sinks.One<VersionedRota> stale = Sinks.one();
+
+        CompletableFuture<Rota> load = cache.get(ID, id -> cache.stamped(id, key -> stale.asMono())).toFuture();
+        cache.put(rota("written"), 2);
+        stale.tryEmitValue(new VersionedRota(rota("stale"), 1));
+
+        assertThat(load.join()).isEqualTo(rota("stale"));
+        assertThat(cache.get(ID, id -> cache.stamped(id, this::load)).block()).isEqualTo(rota("written"));
+        assertThat(loads.get()).isEqualTo(0);
+    }
+
+    private RotaNearCache cache(boolean enabled) {
+        RotaNearCache cache = new RotaNearCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "enabled", enabled);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100L);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(5));
+        cache.init();
+        return cache;
+    }
+
+    private Mono<VersionedRota> load(String id) {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return new VersionedRota(rota("loaded"), 1);
+        });
+    }
+
+    private static Rota rota(String name) {
+        Rota rota = new Rota();
+        rota.setId(ID);
+        rota.setName(name);
+        return rota;
+    }
+}
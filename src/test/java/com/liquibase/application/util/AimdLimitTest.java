@@ -0,0 +1,103 @@
+package com.liquibase.application.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdLimitTest {
+    private static final long NEVER_SLOW = TimeUnit.HOURS.toNanos(1);
+
+    private static final long ALWAYS_SLOW = 0;
+
+    @Test
+    void callsBeyondLimitAreRejected() {
+        AimdLimit limit = new AimdLimit(2, 1, 10, NEVER_SLOW, 0.5);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+        assertThat(limit.getRejected()).isEqualTo(1L);
+
+        limit.release(System.nanoTime(), false);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void initialLimitIsKeptWithinBounds() {
+        assertThat(new AimdLimit(100, 1, 10, NEVER_SLOW, 0.5).getLimit()).isEqualTo(10);
+        assertThat(new AimdLimit(0, 2, 10, NEVER_SLOW, 0.5).getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void fastCallsGrowUsedLimitUpToMax() {
+        AimdLimit limit = new AimdLimit(4, 1, 10, NEVER_SLOW, 0.5);
+
+        fillAndRelease(limit, 10, false);
+        assertThat(limit.getLimit()).isGreaterThan(4);
+
+        fillAndRelease(limit, 1000, false);
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void fastCallsDontGrowUnusedLimit() {
+        AimdLimit limit = new AimdLimit(4, 1, 10, NEVER_SLOW, 0.5);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(System.nanoTime(), false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void burstOfSlowCallsDecreasesLimitOnce() throws InterruptedException {
+        AimdLimit limit = new AimdLimit(8, 1, 10, ALWAYS_SLOW, 0.5);
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        Thread.sleep(1);
+
+        for (int i = 0; i < 3; i++) {
+            limit.release(start, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(4);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        long laterStart = System.nanoTime();
+        Thread.sleep(1);
+        limit.release(laterStart, false);
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void failedCallsDecreaseLimitDownToMin() {
+        AimdLimit limit = new AimdLimit(8, 3, 10, NEVER_SLOW, 0.5);
+
+        fillAndRelease(limit, 10, true);
+
+        assertThat(limit.getLimit()).isEqualTo(3);
+        assertThat(limit.getInFlight()).isEqualTo(0);
+    }
+
+    /**
+     * Repeatedly takes every slot and releases them, each call starting after the previous round.
+     */
+    private static void fillAndRelease(AimdLimit limit, int rounds, boolean failed) {
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(start, failed);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.liquibase.application.util;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DateTimeCodecsTest {
+    private static final DateTimeFormatter YYYY_MM_DD = DateTimeFormatter.ofPattern(DateTimeUtil.YYYY_MM_DD);
+
+    private static final DateTimeFormatter HH_MM = DateTimeFormatter.ofPattern(DateTimeUtil.HH_MM);
+
+    @Test
+    void localDatesRoundTripLikeFormatter() {
+        for (LocalDate date = LocalDate.of(1899, 12, 1); date.isBefore(LocalDate.of(2201, 1, 1));
+                date = date.plusDays(1)) {
+            String text = DateTimeCodecs.formatLocalDate(date);
+            assertThat(text).isEqualTo(date.format(YYYY_MM_DD));
+            assertThat(DateTimeCodecs.parseLocalDate(text)).isEqualTo(date);
+        }
+    }
+
+    @Test
+    void localDatesOutsideFourDigitYearsAreFormattedLikeFormatter() {
+        LocalDate date = LocalDate.of(12345, 6, 7);
+        assertThat(DateTimeCodecs.formatLocalDate(date)).isEqualTo(date.format(YYYY_MM_DD));
+    }
+
+    @Test
+    void invalidDaysAndMonthsAreRejected() {
+        for (String text : new String[] {"2023-02-29", "2100-02-29", "2023-04-31", "2023-13-01", "2023-00-10",
+                "2023-01-00", "2023-01-32"}) {
+            assertThatThrownBy(() -> LocalDate.parse(text)).isInstanceOf(DateTimeParseException.class);
+            assertThatThrownBy(() -> DateTimeCodecs.parseLocalDate(text))
+                    .isInstanceOf(DateTimeParseException.class);
+        }
+        assertThat(DateTimeCodecs.parseLocalDate("2024-02-29")).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(DateTimeCodecs.parseLocalDate("2000-02-29")).isEqualTo(LocalDate.of(2000, 2, 29));
+    }
+
+    @Test
+    void malformedDatesAreRejected() {
+        for (String text : new String[] {"2023-1-01", "2023/01/01", "20230101", "2023-01-1a", "+2023-01-01",
+                "2023-01-01 "}) {
+            assertThatThrownBy(() -> DateTimeCodecs.parseLocalDate(text))
+                    .isInstanceOf(DateTimeParseException.class);
+        }
+    }
+
+    @Test
+    void hourMinuteRoundTripsLikeFormatter() {
+        for (int minuteOfDay = 0; minuteOfDay < 24 * 60; minuteOfDay++) {
+            LocalTime time = LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+            String text = DateTimeCodecs.formatHourMinute(time);
+            assertThat(text).isEqualTo(time.format(HH_MM));
+            assertThat(DateTimeCodecs.parseHourMinute(text)).isEqualTo(LocalTime.parse(text, HH_MM));
+        }
+        assertThat(DateTimeCodecs.formatHourMinute(LocalTime.of(8, 5, 59, 999_999_999)))
+                .isEqualTo(LocalTime.of(8, 5, 59, 999_999_999).format(HH_MM));
+    }
+
+    @Test
+    void invalidHourMinuteIsRejected() {
+        for (String text : new String[] {"24:01", "23:60", "8:00", "08:00:00", "08-00", "0a:00"}) {
+            assertThatThrownBy(() -> LocalTime.parse(text, HH_MM)).isInstanceOf(DateTimeParseException.class);
+            assertThatThrownBy(() -> DateTimeCodecs.parseHourMinute(text))
+                    .isInstanceOf(DateTimeParseException.class);
+        }
+    }
+
+    @Test
+    void endOfDayHourMinuteIsMidnightLikeFormatter() {
+        assertThat(DateTimeCodecs.parseHourMinute("24:00")).isEqualTo(LocalTime.parse("24:00", HH_MM));
+    }
+
+    @Test
+    void isoLocalTimeIsFormattedLikeToString() {
+        LocalTime[] times = {LocalTime.MIDNIGHT, LocalTime.of(8, 0), LocalTime.of(23, 59, 1),
+                LocalTime.of(8, 0, 0, 1), LocalTime.of(8, 0, 0, 100_000_000), LocalTime.of(8, 0, 0, 120_000),
+                LocalTime.of(8, 0, 0, 123_456_789), LocalTime.of(8, 0, 0, 1_000), LocalTime.MAX};
+        for (LocalTime time : times) {
+            String text = DateTimeCodecs.formatIsoLocalTime(time);
+            assertThat(text).isEqualTo(time.toString());
+            assertThat(DateTimeCodecs.parseIsoLocalTime(text)).isEqualTo(time);
+        }
+    }
+
+    @Test
+    void isoLocalTimeIsParsedLikeLocalTime() {
+        for (String text : new String[] {"08:00", "08:00:30", "08:00:30.", "08:00:30.5", "08:00:30.25", "08:00:30.1234",
+                "08:00:30.123456789", "23:59:59.999999999"}) {
+            assertThat(DateTimeCodecs.parseIsoLocalTime(text)).isEqualTo(LocalTime.parse(text));
+        }
+    }
+
+    @Test
+    void invalidIsoLocalTimeIsRejected() {
+        for (String text : new String[] {"24:00", "08:60", "08:00:60", "08:00:", "08:00:30.1234567890",
+                "08:00:30,5", "08", "08:0"}) {
+            assertThatThrownBy(() -> LocalTime.parse(text)).isInstanceOf(DateTimeParseException.class);
+            assertThatThrownBy(() -> DateTimeCodecs.parseIsoLocalTime(text))
+                    .isInstanceOf(DateTimeParseException.class);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.liquibase.application.util;
+
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.util.Pair;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DateTimeUtilTest {
+
+    @Test
+    void earliestAndLatestTimesKeepFractionsOfSecond() {
+        assertThat(DateTimeUtil.calculateEarliestAndLatestTimes(LocalTime.of(8, 0, 0, 500_000_000),
+                LocalTime.of(0, 30)))
+                .isEqualTo(Pair.of(LocalTime.of(7, 30, 0, 500_000_000), LocalTime.of(8, 30, 0, 500_000_000)));
+    }
+
+    @Test
+    void earliestAndLatestTimesWithoutFlexSpanFourteenMinutes() {
+        assertThat(DateTimeUtil.calculateEarliestAndLatestTimes(LocalTime.of(8, 0), null))
+                .isEqualTo(Pair.of(LocalTime.of(8, 0), LocalTime.of(8, 14)));
+    }
+
+    @Test
+    void baseTimeAndFlexKeepFractionsOfSecond() {
+        assertThat(DateTimeUtil.calculateBaseTimeAndFlex(LocalTime.of(8, 0, 0, 250_000_000),
+                LocalTime.of(10, 0, 0, 750_000_000)))
+                .isEqualTo(Pair.of(LocalTime.of(9, 0, 0, 750_000_000), LocalTime.of(1, 0)));
+    }
+
+    @Test
+    void baseTimeAndFlexOfLatestTimeBeforeEarliestComeFromNegativeFlex() {
+        assertThat(DateTimeUtil.calculateBaseTimeAndFlex(LocalTime.of(22, 0), LocalTime.of(2, 0)))
+                .isEqualTo(Pair.of(LocalTime.of(12, 0), LocalTime.of(14, 0)));
+    }
+
+    @Test
+    void shiftWindowDropsFractionsOfSecond() {
+        long window = DateTimeUtil.shiftWindow(LocalTime.of(8, 0, 0, 500_000_000), LocalTime.of(0, 30));
+
+        assertThat(ShiftWindow.startTime(window)).isEqualTo(LocalTime.of(7, 30));
+        assertThat(ShiftWindow.endTime(window)).isEqualTo(LocalTime.of(8, 30));
+    }
+
+    @Test
+    void shiftWindowWithoutFlexMayCrossMidnight() {
+        long window = DateTimeUtil.shiftWindow(LocalTime.of(23, 50), null);
+
+        assertThat(ShiftWindow.crossesMidnight(window)).isTrue();
+        assertThat(ShiftWindow.toString(window)).isEqualTo("23:50-00:04");
+    }
+
+    @Test
+    void shiftWindowOfLatestTimeBeforeEarliestCrossesMidnight() {
+        long window = ShiftWindow.of(LocalTime.of(22, 0), LocalTime.of(2, 0));
+
+        assertThat(ShiftWindow.base(window)).isEqualTo(LocalTime.MIDNIGHT.toSecondOfDay());
+        assertThat(ShiftWindow.flex(window)).isEqualTo(LocalTime.of(2, 0).toSecondOfDay());
+    }
+}
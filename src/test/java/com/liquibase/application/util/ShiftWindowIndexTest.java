@@ -0,0 +1,58 @@
+package com.liquibase.application.util;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShiftWindowIndexTest {
+    private static final int DRIVER = 7;
+    private static final long DAY = LocalDate.of(2023, 3, 6).toEpochDay();
+
+    /**
+     * The driver works 22:00-06:00 starting on {@link #DAY} only, so the morning part is worked on the day after.
+     */
+    private final ShiftWindowIndex index = ShiftWindowIndex.builder()
+            .add(DRIVER, window(22, 6), new DayCoverage(DAY).add(DAY))
+            .build();
+
+    @Test
+    void morningOfWindowCrossingMidnightIsWorkedOnNextDay() {
+        assertThat(index.overlapping(window(2, 3), DAY + 1)).containsExactly(DRIVER);
+        assertThat(index.covering(window(2, 3), DAY + 1)).containsExactly(DRIVER);
+        assertThat(index.overlapping(window(2, 3), DAY)).isEmpty();
+        assertThat(index.covering(window(2, 3), DAY)).isEmpty();
+    }
+
+    @Test
+    void eveningOfWindowCrossingMidnightIsWorkedOnSameDay() {
+        assertThat(index.covering(window(22, 23), DAY)).containsExactly(DRIVER);
+        assertThat(index.covering(window(22, 23), DAY + 1)).isEmpty();
+    }
+
+    @Test
+    void queryCrossingMidnightLooksAtMorningOfNextDay() {
+        assertThat(index.covering(window(23, 5), DAY)).containsExactly(DRIVER);
+        assertThat(index.covering(window(23, 5), DAY - 1)).isEmpty();
+        assertThat(index.covering(window(23, 5), DAY + 1)).isEmpty();
+        assertThat(index.overlapping(window(23, 1), DAY)).containsExactly(DRIVER);
+        assertThat(index.overlapping(window(21, 1), DAY - 1)).isEmpty();
+    }
+
+    @Test
+    void nightShiftsOfConsecutiveDaysCoverQueryCrossingMidnight() {
+        ShiftWindowIndex twoShifts = ShiftWindowIndex.builder()
+                .add(DRIVER, window(18, 0), new DayCoverage(DAY).add(DAY))
+                .add(DRIVER, window(0, 6), new DayCoverage(DAY).add(DAY + 1))
+                .build();
+
+        assertThat(twoShifts.covering(window(20, 4), DAY)).containsExactly(DRIVER);
+        assertThat(twoShifts.covering(window(20, 4), DAY + 1)).isEmpty();
+    }
+
+    private static long window(int startHour, int endHour) {
+        return ShiftWindow.of(LocalTime.of(startHour, 0), LocalTime.of(endHour, 0));
+    }
+}
@@ -0,0 +1,73 @@
+package com.liquibase.application.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TescoFiscalCalendarTest {
+
+    @Test
+    void firstWeekStartsDayAfterLastSaturdayOfFebruary() {
+        for (int year = TescoFiscalCalendar.MIN_YEAR - 5; year <= TescoFiscalCalendar.MAX_YEAR + 5; year++) {
+            assertThat(TescoFiscalCalendar.firstWeekStart(year)).as("year %d", year)
+                    .isEqualTo(firstWeekStart(year).toEpochDay());
+        }
+    }
+
+    @Test
+    void yearsAndWeeksMatchAcrossTableEdges() {
+        assertDaysMatch(LocalDate.of(TescoFiscalCalendar.MIN_YEAR - 2, 1, 1),
+                LocalDate.of(TescoFiscalCalendar.MIN_YEAR + 2, 1, 1));
+        assertDaysMatch(LocalDate.of(TescoFiscalCalendar.MAX_YEAR - 2, 1, 1),
+                LocalDate.of(TescoFiscalCalendar.MAX_YEAR + 3, 1, 1));
+    }
+
+    @Test
+    void fiftyThreeWeekYearsEndWithWeekFiftyThree() {
+        int longYears = 0;
+        for (int year = TescoFiscalCalendar.MIN_YEAR; year <= TescoFiscalCalendar.MAX_YEAR; year++) {
+            long nextYearStart = firstWeekStart(year + 1).toEpochDay();
+            int weeks = (int) (nextYearStart - firstWeekStart(year).toEpochDay()) / DateTimeUtil.DAYS_IN_WEEK;
+            assertThat(TescoFiscalCalendar.weekNumber(nextYearStart - 1)).as("year %d", year).isEqualTo(weeks);
+            assertThat(TescoFiscalCalendar.financialYear(nextYearStart - 1)).isEqualTo(year);
+            assertThat(TescoFiscalCalendar.weekNumber(nextYearStart)).isEqualTo(1);
+            assertThat(TescoFiscalCalendar.financialYear(nextYearStart)).isEqualTo(year + 1);
+            if (weeks == 53) {
+                longYears++;
+                assertDaysMatch(LocalDate.ofEpochDay(nextYearStart - 14), LocalDate.ofEpochDay(nextYearStart + 7));
+            }
+        }
+        assertThat(longYears).isPositive();
+    }
+
+    private static void assertDaysMatch(LocalDate from, LocalDate to) {
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            int year = financialYear(day);
+            long firstWeekStart = firstWeekStart(year).toEpochDay();
+            int week = (int) (day.toEpochDay() - firstWeekStart) / DateTimeUtil.DAYS_IN_WEEK + 1;
+            assertThat(TescoFiscalCalendar.financialYear(day)).as("year of %s", day).isEqualTo(year);
+            assertThat(TescoFiscalCalendar.weekNumber(day.toEpochDay())).as("week of %s", day).isEqualTo(week);
+            assertThat(TescoFiscalCalendar.weekStart(day.toEpochDay()))
+                    .isEqualTo(firstWeekStart + (week - 1L) * DateTimeUtil.DAYS_IN_WEEK);
+        }
+    }
+
+    private static int financialYear(LocalDate day) {
+        return day.isBefore(firstWeekStart(day.getYear())) ? day.getYear() - 1 : day.getYear();
+    }
+
+    /**
+     * Straightforward computation of the first Tesco week start: a day after the last Saturday in February.
+     */
+    private static LocalDate firstWeekStart(int year) {
+        LocalDate day = LocalDate.of(year, Month.MARCH, 1).minusDays(1);
+        while (day.getDayOfWeek() != DayOfWeek.SATURDAY) {
+            day = day.minusDays(1);
+        }
+        return day.plusDays(1);
+    }
+}